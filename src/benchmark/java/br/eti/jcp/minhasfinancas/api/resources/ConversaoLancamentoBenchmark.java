@@ -0,0 +1,60 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import br.eti.jcp.minhasfinancas.api.dto.LancamentoDTO;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão DTO -> entidade feita pelo {@link LancamentoResource} em cada gravação e o caminho inverso
+ * usado nas respostas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversaoLancamentoBenchmark {
+
+    private LancamentoDTO dto;
+    private Usuario usuario;
+    private Lancamento lancamento;
+
+    @Setup
+    public void preparar() {
+        usuario = Usuario.builder().id(1L).build();
+        dto = LancamentoDTO.builder()
+                .descricao("Conta de luz")
+                .mes(1)
+                .ano(2020)
+                .valor(BigDecimal.TEN)
+                .usuario(1L)
+                .tipo("DESPESA")
+                .status("PENDENTE")
+                .build();
+        lancamento = LancamentoResource.converter(dto, usuario);
+    }
+
+    @Benchmark
+    public Lancamento converterDtoParaEntidade() {
+        return LancamentoResource.converter(dto, usuario);
+    }
+
+    @Benchmark
+    public LancamentoDTO converterEntidadeParaDto() {
+        return LancamentoDTO.de(lancamento);
+    }
+}
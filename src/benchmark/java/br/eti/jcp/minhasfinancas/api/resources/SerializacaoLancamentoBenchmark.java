@@ -0,0 +1,147 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialização JSON das listas devolvidas pela API: entidades {@link Lancamento} (como antes das projeções)
+ * e {@link LancamentoResumo}, com um {@link ObjectMapper} configurado como o do Spring Boot.
+ * <p>
+ * As projeções também são medidas nos formatos negociáveis pelo {@code Accept} (CBOR e Smile) e em JSON
+ * comprimido com gzip, como o Tomcat envia quando o cliente aceita; o tamanho de cada formato é reportado
+ * pelos contadores de {@link #medirTamanhos(Tamanhos)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoLancamentoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int quantidade;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    private List<Lancamento> lancamentos;
+    private List<LancamentoResumo> resumos;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        Usuario usuario = Usuario.builder().id(1L).nome("Usuario").email("usuario@email.com").build();
+        lancamentos = new ArrayList<>(quantidade);
+        resumos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Lancamento lancamento = Lancamento.builder()
+                    .id((long) i)
+                    .descricao("Lancamento " + i)
+                    .mes(i % 12 + 1)
+                    .ano(2020)
+                    .usuario(usuario)
+                    .valor(BigDecimal.valueOf(i, 2))
+                    .tipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                    .status(StatusLancamento.PENDENTE)
+                    .dataCadastro(LocalDate.of(2020, 1, 1))
+                    .versao(0L)
+                    .build();
+            lancamentos.add(lancamento);
+            resumos.add(new LancamentoResumo(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+                    lancamento.getAno(), lancamento.getValor(), usuario.getId(), lancamento.getTipo(),
+                    lancamento.getStatus(), lancamento.getDataCadastro(), lancamento.getVersao()));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarEntidades() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(lancamentos);
+    }
+
+    @Benchmark
+    public byte[] serializarProjecoes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(resumos);
+    }
+
+    @Benchmark
+    public byte[] serializarProjecoesJsonGzip() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, resumos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializarProjecoesCbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(resumos);
+    }
+
+    @Benchmark
+    public byte[] serializarProjecoesSmile() throws JsonProcessingException {
+        return smile.writeValueAsBytes(resumos);
+    }
+
+    /**
+     * Não mede tempo: uma única execução preenche os {@link Tamanhos}, que o JMH reporta como contadores
+     * secundários ao lado das demais medições.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void medirTamanhos(Tamanhos tamanhos) throws JsonProcessingException {
+        tamanhos.json = serializarProjecoes().length;
+        tamanhos.jsonGzip = serializarProjecoesJsonGzip().length;
+        tamanhos.cbor = serializarProjecoesCbor().length;
+        tamanhos.smile = serializarProjecoesSmile().length;
+    }
+
+    /**
+     * Tamanho em bytes das projeções em cada formato.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanhos {
+
+        public long json;
+        public long jsonGzip;
+        public long cbor;
+        public long smile;
+    }
+}
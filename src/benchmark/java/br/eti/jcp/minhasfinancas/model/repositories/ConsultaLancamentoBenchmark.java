@@ -0,0 +1,139 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.MinhasfinancasApplication;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import br.eti.jcp.minhasfinancas.services.ResumoMensalService;
+import br.eti.jcp.minhasfinancas.services.SaldoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de lançamento contra o H2 embarcado, com a aplicação completa (perfil test) e a tabela
+ * populada com {@code quantidade} lançamentos distribuídos entre {@value #USUARIOS} usuários.
+ * As medições são sempre do usuário 1.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultaLancamentoBenchmark {
+
+    private static final int USUARIOS = 10;
+    private static final int TAMANHO_BLOCO = 1000;
+    private static final String[] PALAVRAS = {"conta", "luz", "agua", "gas", "mercado", "salario", "aluguel",
+            "farmacia", "escola", "internet"};
+
+    @Param({"1000", "10000", "100000"})
+    private int quantidade;
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoRepository repository;
+    private LancamentoService lancamentoService;
+    private ResumoMensalService resumoMensalService;
+    private Lancamento filtroDescricao;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark" + quantidade
+                                + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+                        "logging.level.root=WARN")
+                .run();
+        repository = contexto.getBean(LancamentoRepository.class);
+        lancamentoService = contexto.getBean(LancamentoService.class);
+        resumoMensalService = contexto.getBean(ResumoMensalService.class);
+        popular(contexto.getBean(JdbcTemplate.class));
+        contexto.getBean(SaldoService.class).reconstruirTodos();
+        resumoMensalService.reconstruirTodos();
+
+        filtroDescricao = new Lancamento();
+        filtroDescricao.setUsuario(Usuario.builder().id(1L).build());
+        filtroDescricao.setDescricao("mercado 12");
+    }
+
+    private void popular(JdbcTemplate jdbc) {
+        for (int i = 1; i <= USUARIOS; i++) {
+            jdbc.update("insert into financas.usuario (id, nome, email, senha) values (?, ?, ?, ?)",
+                    i, "Usuario " + i, "usuario" + i + "@email.com", "senha");
+        }
+        Random random = new Random(quantidade);
+        Date hoje = Date.valueOf(LocalDate.now());
+        List<Object[]> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        for (long id = 1; id <= quantidade; id++) {
+            String descricao = PALAVRAS[random.nextInt(PALAVRAS.length)] + " " + random.nextInt(1000);
+            bloco.add(new Object[]{id, descricao, random.nextInt(12) + 1, 2015 + random.nextInt(10),
+                    id % USUARIOS + 1, BigDecimal.valueOf(random.nextInt(100_000), 2),
+                    random.nextBoolean() ? "RECEITA" : "DESPESA", random.nextBoolean() ? "PENDENTE" : "EFETIVADO", hoje});
+            if (bloco.size() == TAMANHO_BLOCO || id == quantidade) {
+                jdbc.batchUpdate("insert into financas.lancamento " +
+                        "(id, descricao, mes, ano, id_usuario, valor, tipo, status, data_cadastro, versao) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", bloco);
+                bloco.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> buscarDescricaoNoBanco() {
+        return repository.buscar(1L, "%mercado 12%", null, null);
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> buscarDescricaoPeloIndice() {
+        return lancamentoService.buscar(filtroDescricao);
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> buscarPrimeiraPagina() {
+        return repository.buscarPagina(1L, "%", null, null, Integer.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE,
+                PageRequest.of(0, 51));
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> buscarTodosDoAno() {
+        return repository.buscar(1L, "%", null, 2020);
+    }
+
+    @Benchmark
+    public List<ResumoMensal> buscarResumoDoAno() {
+        return resumoMensalService.buscar(1L, 2020);
+    }
+}
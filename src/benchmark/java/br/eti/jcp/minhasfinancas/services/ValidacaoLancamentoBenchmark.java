@@ -0,0 +1,72 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.services.impl.LancamentoServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de {@link LancamentoService#validar} em cada gravação, para um lançamento válido e para um
+ * rejeitado (que paga a criação da exceção).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoLancamentoBenchmark {
+
+    // validar não usa as dependências do serviço
+    private final LancamentoService service = new LancamentoServiceImpl(null, null, null, null, null, null, null);
+
+    private Lancamento valido;
+    private Lancamento invalido;
+
+    @Setup
+    public void preparar() {
+        valido = Lancamento.builder()
+                .descricao("Conta de luz")
+                .mes(1)
+                .ano(2020)
+                .usuario(Usuario.builder().id(1L).build())
+                .valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.DESPESA)
+                .status(StatusLancamento.PENDENTE)
+                .dataCadastro(LocalDate.now())
+                .build();
+        invalido = valido.toBuilder().valor(BigDecimal.ZERO).build();
+    }
+
+    @Benchmark
+    public Lancamento validarLancamentoValido() {
+        service.validar(valido);
+        return valido;
+    }
+
+    @Benchmark
+    public String validarLancamentoInvalido() {
+        try {
+            service.validar(invalido);
+            return null;
+        } catch (RegraDeNegocioException e) {
+            return e.getMessage();
+        }
+    }
+}
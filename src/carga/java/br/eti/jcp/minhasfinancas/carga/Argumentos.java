@@ -0,0 +1,29 @@
+package br.eti.jcp.minhasfinancas.carga;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Argumentos de linha de comando no formato {@code --nome valor}.
+ */
+class Argumentos {
+
+    private final Map<String, String> valores = new HashMap<>();
+
+    Argumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Argumento inválido: " + args[i]);
+            }
+            valores.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    String texto(String nome, String padrao) {
+        return valores.getOrDefault(nome, padrao);
+    }
+
+    long numero(String nome, long padrao) {
+        return valores.containsKey(nome) ? Long.parseLong(valores.get(nome)) : padrao;
+    }
+}
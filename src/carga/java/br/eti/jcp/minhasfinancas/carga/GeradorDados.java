@@ -0,0 +1,238 @@
+package br.eti.jcp.minhasfinancas.carga;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Popula o banco (H2 ou PostgreSQL, com o esquema já criado) com usuários e lançamentos sintéticos,
+ * gravando também saldo_usuario e resumo_mensal coerentes com os lançamentos gerados.
+ * <p>
+ * Distribuições: a quantidade de lançamentos por usuário segue uma log-normal (poucos usuários muito
+ * ativos); receitas são ~20% dos lançamentos, com valores maiores; os anos recentes concentram mais
+ * movimento; lançamentos de meses passados estão em sua maioria efetivados.
+ * <p>
+ * Todos os usuários recebem a mesma senha ({@code --senha}), com email {@code usuario<id>@carga.local},
+ * para que {@link TesteCarga} possa autenticá-los.
+ * <pre>
+ * mvn -Pcarga test-compile exec:java -Dcarga.principal=br.eti.jcp.minhasfinancas.carga.GeradorDados \
+ *     -Dexec.args="--url jdbc:h2:file:/tmp/minhasfinancas;AUTO_SERVER=TRUE --usuarios 100000 --lancamentos 5000000"
+ * </pre>
+ */
+public class GeradorDados {
+
+    private static final int TAMANHO_BATCH = 1000;
+    private static final int LANCAMENTOS_POR_COMMIT = 20_000;
+    private static final int ANOS = 5;
+
+    private static final String[] RECEITAS = {"Salário", "Freelance", "Rendimento poupança", "Reembolso",
+            "Venda", "Dividendos"};
+    private static final String[] DESPESAS = {"Mercado", "Conta de luz", "Conta de água", "Internet", "Aluguel",
+            "Farmácia", "Combustível", "Restaurante", "Cinema", "Escola", "Plano de saúde", "Telefone",
+            "Padaria", "Academia", "Streaming", "Presente", "Viagem", "Manutenção do carro"};
+
+    private final Random random;
+    private final int anoAtual;
+    private final int mesAtual;
+
+    GeradorDados(long semente) {
+        this.random = new Random(semente);
+        LocalDate hoje = LocalDate.now();
+        this.anoAtual = hoje.getYear();
+        this.mesAtual = hoje.getMonthValue();
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Argumentos argumentos = new Argumentos(args);
+        String url = argumentos.texto("url", "jdbc:h2:file:/tmp/minhasfinancas;AUTO_SERVER=TRUE");
+        String usuario = argumentos.texto("usuario", url.startsWith("jdbc:postgresql") ? "postgres" : "sa");
+        String senhaBanco = argumentos.texto("senha-banco", url.startsWith("jdbc:postgresql") ? "" : "sa");
+        int usuarios = (int) argumentos.numero("usuarios", 10_000);
+        long lancamentos = argumentos.numero("lancamentos", 500_000);
+        String senha = argumentos.texto("senha", "carga123");
+        int custo = (int) argumentos.numero("custo-bcrypt", 10);
+
+        try (Connection conexao = DriverManager.getConnection(url, usuario, senhaBanco)) {
+            conexao.setAutoCommit(false);
+            new GeradorDados(argumentos.numero("semente", 42))
+                    .gerar(conexao, usuarios, lancamentos, new BCryptPasswordEncoder(custo).encode(senha));
+        }
+    }
+
+    void gerar(Connection conexao, int usuarios, long lancamentos, String hashSenha) throws SQLException {
+        long inicio = System.nanoTime();
+        long primeiroUsuario = maximo(conexao, "select max(id) from financas.usuario") + 1;
+        long proximoLancamento = maximo(conexao, "select max(id) from financas.lancamento") + 1;
+        int[] quantidades = distribuir(usuarios, lancamentos);
+
+        try (PreparedStatement insereUsuario = conexao.prepareStatement(
+                "insert into financas.usuario (id, nome, email, senha) values (?, ?, ?, ?)");
+             PreparedStatement insereLancamento = conexao.prepareStatement(
+                     "insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status, data_cadastro, versao) " +
+                             "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)");
+             PreparedStatement insereSaldo = conexao.prepareStatement(
+                     "insert into financas.saldo_usuario (id_usuario, valor) values (?, ?)");
+             PreparedStatement insereResumo = conexao.prepareStatement(
+                     "insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, quantidade, total) " +
+                             "values (?, ?, ?, ?, ?, ?, ?)")) {
+            long pendentes = 0;
+            long gerados = 0;
+            for (int i = 0; i < usuarios; i++) {
+                long idUsuario = primeiroUsuario + i;
+                insereUsuario.setLong(1, idUsuario);
+                insereUsuario.setString(2, "Usuario " + idUsuario);
+                insereUsuario.setString(3, "usuario" + idUsuario + "@carga.local");
+                insereUsuario.setString(4, hashSenha);
+                insereUsuario.addBatch();
+                // o usuário precisa existir antes dos lançamentos que o referenciam
+                insereUsuario.executeBatch();
+
+                BigDecimal saldo = BigDecimal.ZERO;
+                Map<String, Object[]> resumos = new HashMap<>();
+                for (int j = 0; j < quantidades[i]; j++) {
+                    boolean receita = random.nextDouble() < 0.2;
+                    int ano = sortearAno();
+                    int mes = ano == anoAtual ? 1 + random.nextInt(mesAtual) : 1 + random.nextInt(12);
+                    String status = sortearStatus(ano, mes);
+                    String tipo = receita ? "RECEITA" : "DESPESA";
+                    BigDecimal valor = receita ? logNormal(3000, 0.6) : logNormal(80, 1.0);
+
+                    insereLancamento.setLong(1, proximoLancamento++);
+                    insereLancamento.setString(2, descricao(receita));
+                    insereLancamento.setInt(3, mes);
+                    insereLancamento.setInt(4, ano);
+                    insereLancamento.setLong(5, idUsuario);
+                    insereLancamento.setBigDecimal(6, valor);
+                    insereLancamento.setString(7, tipo);
+                    insereLancamento.setString(8, status);
+                    insereLancamento.setDate(9, Date.valueOf(LocalDate.of(ano, mes, 1 + random.nextInt(28))));
+                    insereLancamento.addBatch();
+
+                    saldo = receita ? saldo.add(valor) : saldo.subtract(valor);
+                    Object[] resumo = resumos.computeIfAbsent(ano + ":" + mes + ":" + tipo + ":" + status,
+                            chave -> new Object[]{ano, mes, tipo, status, 0L, BigDecimal.ZERO});
+                    resumo[4] = (Long) resumo[4] + 1;
+                    resumo[5] = ((BigDecimal) resumo[5]).add(valor);
+
+                    if (++pendentes % TAMANHO_BATCH == 0) {
+                        insereLancamento.executeBatch();
+                    }
+                }
+                insereLancamento.executeBatch();
+
+                insereSaldo.setLong(1, idUsuario);
+                insereSaldo.setBigDecimal(2, saldo);
+                insereSaldo.addBatch();
+                for (Object[] resumo : resumos.values()) {
+                    insereResumo.setLong(1, idUsuario);
+                    insereResumo.setInt(2, (Integer) resumo[0]);
+                    insereResumo.setInt(3, (Integer) resumo[1]);
+                    insereResumo.setString(4, (String) resumo[2]);
+                    insereResumo.setString(5, (String) resumo[3]);
+                    insereResumo.setLong(6, (Long) resumo[4]);
+                    insereResumo.setBigDecimal(7, (BigDecimal) resumo[5]);
+                    insereResumo.addBatch();
+                }
+
+                gerados += quantidades[i];
+                if (pendentes >= LANCAMENTOS_POR_COMMIT || i == usuarios - 1) {
+                    insereSaldo.executeBatch();
+                    insereResumo.executeBatch();
+                    conexao.commit();
+                    pendentes = 0;
+                    System.out.printf("%d/%d usuários, %d lançamentos%n", i + 1, usuarios, gerados);
+                }
+            }
+        }
+        ajustarSequencias(conexao, primeiroUsuario + usuarios, proximoLancamento);
+        conexao.commit();
+        System.out.printf("Concluído em %d s%n", (System.nanoTime() - inicio) / 1_000_000_000L);
+    }
+
+    /**
+     * Reparte o total de lançamentos entre os usuários com pesos log-normais.
+     */
+    private int[] distribuir(int usuarios, long lancamentos) {
+        double[] pesos = new double[usuarios];
+        double soma = 0;
+        for (int i = 0; i < usuarios; i++) {
+            pesos[i] = Math.exp(random.nextGaussian());
+            soma += pesos[i];
+        }
+        int[] quantidades = new int[usuarios];
+        for (int i = 0; i < usuarios; i++) {
+            quantidades[i] = (int) Math.round(lancamentos * pesos[i] / soma);
+        }
+        return quantidades;
+    }
+
+    private int sortearAno() {
+        // anos recentes com peso maior: 1, 2, 3... para o mais antigo até o atual
+        int total = ANOS * (ANOS + 1) / 2;
+        int sorteio = random.nextInt(total);
+        for (int i = ANOS; i >= 1; i--) {
+            sorteio -= i;
+            if (sorteio < 0) {
+                return anoAtual - (ANOS - i);
+            }
+        }
+        return anoAtual;
+    }
+
+    private String sortearStatus(int ano, int mes) {
+        double sorteio = random.nextDouble();
+        if (sorteio < 0.03) {
+            return "CANCELADO";
+        }
+        boolean passado = ano < anoAtual || mes < mesAtual;
+        return passado && sorteio < 0.9 ? "EFETIVADO" : "PENDENTE";
+    }
+
+    private String descricao(boolean receita) {
+        String[] opcoes = receita ? RECEITAS : DESPESAS;
+        String descricao = opcoes[random.nextInt(opcoes.length)];
+        return random.nextBoolean() ? descricao : descricao + " " + (1 + random.nextInt(999));
+    }
+
+    private BigDecimal logNormal(double mediana, double dispersao) {
+        double valor = mediana * Math.exp(dispersao * random.nextGaussian());
+        return BigDecimal.valueOf(Math.max(valor, 0.01)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static long maximo(Connection conexao, String sql) throws SQLException {
+        try (Statement statement = conexao.createStatement(); ResultSet resultado = statement.executeQuery(sql)) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    /**
+     * Os ids foram gravados explicitamente; a identidade de usuario e a sequência de lancamento
+     * precisam continuar depois deles. A sequência é consumida em blocos de 50 (allocationSize), por isso
+     * reinicia um bloco à frente.
+     */
+    private static void ajustarSequencias(Connection conexao, long proximoUsuario, long proximoLancamento) throws SQLException {
+        long sequencia = proximoLancamento + 50;
+        try (Statement statement = conexao.createStatement()) {
+            if (conexao.getMetaData().getDatabaseProductName().startsWith("PostgreSQL")) {
+                statement.execute("select setval(pg_get_serial_sequence('financas.usuario', 'id'), " + (proximoUsuario - 1) + ")");
+                statement.execute("select setval('financas.lancamento_id_seq', " + sequencia + ")");
+            } else {
+                statement.execute("alter table financas.usuario alter column id restart with " + proximoUsuario);
+                statement.execute("alter sequence financas.lancamento_id_seq restart with " + sequencia);
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package br.eti.jcp.minhasfinancas.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga em laço fechado contra a API em execução, com usuários gerados por {@link GeradorDados}.
+ * <p>
+ * Cada trabalhador autentica os usuários que sorteia uma única vez e reaproveita o token; as operações
+ * seguem o mix informado ({@code --mix busca=50,saldo=30,criacao=15,status=5}). As latências de cada
+ * trabalhador ficam em arrays próprios e só são reunidas no fim, para que a coleta não vire gargalo.
+ * Amostras do aquecimento são descartadas. O resultado (vazão, erros e percentis por operação) é
+ * impresso e gravado em JSON para comparação entre execuções.
+ * <p>
+ * Roteiro local, sem PostgreSQL:
+ * <pre>
+ * # 1. aplicação com H2 em arquivo (o esquema é criado pelas migrações e preservado entre reinícios)
+ * java -jar target/minhasfinancas-0.0.1-SNAPSHOT.jar --spring.profiles.active=test \
+ *     --spring.datasource.url="jdbc:h2:file:/tmp/minhasfinancas;AUTO_SERVER=TRUE;INIT=CREATE SCHEMA IF NOT EXISTS financas"
+ * # 2. massa de dados
+ * mvn -Pcarga test-compile exec:java -Dcarga.principal=br.eti.jcp.minhasfinancas.carga.GeradorDados \
+ *     -Dexec.args="--url jdbc:h2:file:/tmp/minhasfinancas;AUTO_SERVER=TRUE --usuarios 2000 --lancamentos 100000 --custo-bcrypt 4"
+ * # 3. carga (com a aplicação reiniciada, para carregar caches e índices a partir dos dados gerados)
+ * mvn -Pcarga test-compile exec:java -Dcarga.principal=br.eti.jcp.minhasfinancas.carga.TesteCarga \
+ *     -Dexec.args="--usuarios 2000 --concorrencia 32 --duracao 60"
+ * </pre>
+ */
+public class TesteCarga {
+
+    enum Operacao { BUSCA, SALDO, CRIACAO, STATUS }
+
+    private static final String[] TERMOS = {"mercado", "luz", "salário", "farmácia", "restaurante", "aluguel"};
+
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String api;
+    private final long primeiroUsuario;
+    private final int usuarios;
+    private final String senha;
+    private final Operacao[] sorteio;
+
+    TesteCarga(String api, long primeiroUsuario, int usuarios, String senha, String mix) {
+        this.api = api;
+        this.primeiroUsuario = primeiroUsuario;
+        this.usuarios = usuarios;
+        this.senha = senha;
+        this.sorteio = montarSorteio(mix);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Argumentos argumentos = new Argumentos(args);
+        TesteCarga teste = new TesteCarga(
+                argumentos.texto("api", "http://localhost:8080"),
+                argumentos.numero("primeiro-usuario", 1),
+                (int) argumentos.numero("usuarios", 1000),
+                argumentos.texto("senha", "carga123"),
+                argumentos.texto("mix", "busca=50,saldo=30,criacao=15,status=5"));
+        Map<String, Object> resultado = teste.executar(
+                (int) argumentos.numero("concorrencia", 16),
+                Duration.ofSeconds(argumentos.numero("aquecimento", 10)),
+                Duration.ofSeconds(argumentos.numero("duracao", 60)));
+
+        File arquivo = new File(argumentos.texto("resultado", "target/carga-resultado.json"));
+        arquivo.getAbsoluteFile().getParentFile().mkdirs();
+        teste.mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(arquivo, resultado);
+        System.out.println("Resultado gravado em " + arquivo);
+    }
+
+    Map<String, Object> executar(int concorrencia, Duration aquecimento, Duration duracao) throws InterruptedException {
+        long inicioMedicao = System.nanoTime() + aquecimento.toNanos();
+        long fim = inicioMedicao + duracao.toNanos();
+        List<Trabalhador> trabalhadores = new ArrayList<>();
+        CountDownLatch concluidos = new CountDownLatch(concorrencia);
+        for (int i = 0; i < concorrencia; i++) {
+            Trabalhador trabalhador = new Trabalhador(inicioMedicao, fim, concluidos);
+            trabalhadores.add(trabalhador);
+            Thread thread = new Thread(trabalhador, "carga-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        concluidos.await();
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("concorrencia", concorrencia);
+        resultado.put("duracaoSegundos", duracao.getSeconds());
+        Map<String, Object> operacoes = new LinkedHashMap<>();
+        double segundos = duracao.toNanos() / 1e9;
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operação", "total", "erros", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms");
+        for (Operacao operacao : Operacao.values()) {
+            Latencias latencias = new Latencias();
+            long erros = 0;
+            for (Trabalhador trabalhador : trabalhadores) {
+                latencias.juntar(trabalhador.latencias.get(operacao));
+                erros += trabalhador.erros.get(operacao)[0];
+            }
+            long[] ordenadas = latencias.ordenadas();
+            Map<String, Object> estatisticas = new LinkedHashMap<>();
+            estatisticas.put("total", ordenadas.length);
+            estatisticas.put("erros", erros);
+            estatisticas.put("requisicoesPorSegundo", ordenadas.length / segundos);
+            estatisticas.put("p50Ms", percentil(ordenadas, 0.50));
+            estatisticas.put("p90Ms", percentil(ordenadas, 0.90));
+            estatisticas.put("p99Ms", percentil(ordenadas, 0.99));
+            estatisticas.put("p999Ms", percentil(ordenadas, 0.999));
+            estatisticas.put("maximoMs", percentil(ordenadas, 1.0));
+            operacoes.put(operacao.name().toLowerCase(), estatisticas);
+            System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", operacao.name().toLowerCase(),
+                    ordenadas.length, erros, ordenadas.length / segundos, percentil(ordenadas, 0.50),
+                    percentil(ordenadas, 0.90), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999),
+                    percentil(ordenadas, 1.0));
+        }
+        resultado.put("operacoes", operacoes);
+        return resultado;
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+
+    private static Operacao[] montarSorteio(String mix) {
+        List<Operacao> sorteio = new ArrayList<>();
+        for (String parte : mix.split(",")) {
+            String[] pesoPorOperacao = parte.trim().split("=");
+            Operacao operacao = Operacao.valueOf(pesoPorOperacao[0].trim().toUpperCase());
+            for (int i = 0; i < Integer.parseInt(pesoPorOperacao[1].trim()); i++) {
+                sorteio.add(operacao);
+            }
+        }
+        if (sorteio.isEmpty()) {
+            throw new IllegalArgumentException("Mix de operações vazio.");
+        }
+        return sorteio.toArray(new Operacao[0]);
+    }
+
+    private class Trabalhador implements Runnable {
+
+        private final long inicioMedicao;
+        private final long fim;
+        private final CountDownLatch concluidos;
+        private final Map<Operacao, Latencias> latencias = new EnumMap<>(Operacao.class);
+        private final Map<Operacao, long[]> erros = new EnumMap<>(Operacao.class);
+        private final Map<Long, String> tokens = new LinkedHashMap<>();
+        private final List<long[]> criados = new ArrayList<>();
+
+        Trabalhador(long inicioMedicao, long fim, CountDownLatch concluidos) {
+            this.inicioMedicao = inicioMedicao;
+            this.fim = fim;
+            this.concluidos = concluidos;
+            for (Operacao operacao : Operacao.values()) {
+                latencias.put(operacao, new Latencias());
+                erros.put(operacao, new long[1]);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long agora;
+                while ((agora = System.nanoTime()) < fim) {
+                    Operacao operacao = sorteio[random.nextInt(sorteio.length)];
+                    if (operacao == Operacao.STATUS && criados.isEmpty()) {
+                        operacao = Operacao.CRIACAO;
+                    }
+                    boolean sucesso;
+                    long inicio;
+                    try {
+                        long idUsuario = operacao == Operacao.STATUS ? 0 : primeiroUsuario + random.nextInt(usuarios);
+                        HttpRequest requisicao = montar(operacao, idUsuario, random);
+                        inicio = System.nanoTime();
+                        HttpResponse<String> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+                        sucesso = resposta.statusCode() / 100 == 2;
+                        if (sucesso && operacao == Operacao.CRIACAO) {
+                            criados.add(new long[]{idUsuario, mapper.readTree(resposta.body()).get("id").asLong()});
+                        }
+                    } catch (IOException e) {
+                        inicio = agora;
+                        sucesso = false;
+                    }
+                    if (agora >= inicioMedicao) {
+                        latencias.get(operacao).registrar(System.nanoTime() - inicio);
+                        if (!sucesso) {
+                            erros.get(operacao)[0]++;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concluidos.countDown();
+            }
+        }
+
+        private HttpRequest montar(Operacao operacao, long idUsuario, ThreadLocalRandom random)
+                throws IOException, InterruptedException {
+            switch (operacao) {
+                case BUSCA:
+                    String termo = URLEncoder.encode(TERMOS[random.nextInt(TERMOS.length)], StandardCharsets.UTF_8);
+                    int ano = LocalDate.now().getYear() - random.nextInt(3);
+                    return autenticada(idUsuario, "/api/lancamentos?descricao=" + termo + "&ano=" + ano).GET().build();
+                case SALDO:
+                    return autenticada(idUsuario, "/api/usuarios/" + idUsuario + "/saldo").GET().build();
+                case CRIACAO:
+                    LocalDate hoje = LocalDate.now();
+                    String corpo = mapper.createObjectNode()
+                            .put("descricao", "Carga " + random.nextInt(1000))
+                            .put("mes", hoje.getMonthValue())
+                            .put("ano", hoje.getYear())
+                            .put("valor", random.nextInt(1, 50_000) / 100.0)
+                            .put("tipo", random.nextInt(5) == 0 ? "RECEITA" : "DESPESA")
+                            .toString();
+                    return json(autenticada(idUsuario, "/api/lancamentos"), "POST", corpo);
+                default:
+                    long[] criado = criados.get(random.nextInt(criados.size()));
+                    String status = random.nextBoolean() ? "EFETIVADO" : "CANCELADO";
+                    return json(autenticada(criado[0], "/api/lancamentos/" + criado[1] + "/atualizar-status"),
+                            "PUT", "{\"status\":\"" + status + "\"}");
+            }
+        }
+
+        private HttpRequest.Builder autenticada(long idUsuario, String caminho) throws IOException, InterruptedException {
+            String token = tokens.get(idUsuario);
+            if (token == null) {
+                token = autenticar(idUsuario);
+                tokens.put(idUsuario, token);
+            }
+            return HttpRequest.newBuilder(URI.create(api + caminho))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token);
+        }
+
+        private String autenticar(long idUsuario) throws IOException, InterruptedException {
+            String corpo = mapper.createObjectNode()
+                    .put("email", "usuario" + idUsuario + "@carga.local")
+                    .put("senha", senha)
+                    .toString();
+            HttpResponse<String> resposta = cliente.send(
+                    json(HttpRequest.newBuilder(URI.create(api + "/api/usuarios/autenticar")), "POST", corpo),
+                    HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != 200) {
+                throw new IOException("Falha ao autenticar usuario" + idUsuario + ": " + resposta.body());
+            }
+            JsonNode usuario = mapper.readTree(resposta.body());
+            return usuario.get("token").asText();
+        }
+
+        private HttpRequest json(HttpRequest.Builder builder, String metodo, String corpo) {
+            return builder.header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+                    .build();
+        }
+    }
+
+    /**
+     * Latências em nanossegundos num array que cresce conforme a necessidade, sem boxing.
+     */
+    private static class Latencias {
+
+        private long[] valores = new long[1024];
+        private int tamanho;
+
+        void registrar(long nanos) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = nanos;
+        }
+
+        void juntar(Latencias outras) {
+            for (int i = 0; i < outras.tamanho; i++) {
+                registrar(outras.valores[i]);
+            }
+        }
+
+        long[] ordenadas() {
+            long[] copia = Arrays.copyOf(valores, tamanho);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Mudança de status em massa: os lançamentos do usuário com os ids informados ou, sem ids, os que
+ * atendem ao filtro de ano, mês e status atual (todos opcionais).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizacaoStatusLoteDTO {
+    private String status;
+    private String statusAtual;
+    private Integer ano;
+    private Integer mes;
+    private List<Long> ids;
+}
@@ -1,9 +1,12 @@
 package br.eti.jcp.minhasfinancas.api.dto;
 
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
 import lombok.Builder;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
 
 @Data
 @Builder
@@ -17,5 +20,29 @@ public class LancamentoDTO {
     private Long usuario;
     private String tipo;
     private String status;
+    private LocalDate dataCadastro;
+    private Long versao;
+    private Long recorrencia;
+    private Integer ocorrencia;
+
+    /**
+     * Representação do lançamento com o usuário apenas pelo id, sem inicializar a associação lazy.
+     */
+    public static LancamentoDTO de(Lancamento lancamento) {
+        return LancamentoDTO.builder()
+                .id(lancamento.getId())
+                .descricao(lancamento.getDescricao())
+                .mes(lancamento.getMes())
+                .ano(lancamento.getAno())
+                .valor(lancamento.getValor())
+                .usuario(Objects.isNull(lancamento.getUsuario()) ? null : lancamento.getUsuario().getId())
+                .tipo(Objects.toString(lancamento.getTipo(), null))
+                .status(Objects.toString(lancamento.getStatus(), null))
+                .dataCadastro(lancamento.getDataCadastro())
+                .versao(lancamento.getVersao())
+                .recorrencia(Objects.isNull(lancamento.getRecorrencia()) ? null : lancamento.getRecorrencia().getId())
+                .ocorrencia(lancamento.getOcorrencia())
+                .build();
+    }
 
 }
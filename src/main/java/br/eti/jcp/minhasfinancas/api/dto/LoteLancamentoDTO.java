@@ -0,0 +1,15 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoteLancamentoDTO {
+    private Long usuario;
+    private List<LancamentoDTO> lancamentos;
+}
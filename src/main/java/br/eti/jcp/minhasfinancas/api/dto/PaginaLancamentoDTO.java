@@ -0,0 +1,16 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PaginaLancamentoDTO {
+
+    private List<LancamentoResumo> lancamentos;
+    private String proximoCursor;
+
+}
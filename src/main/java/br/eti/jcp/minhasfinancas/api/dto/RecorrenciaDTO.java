@@ -0,0 +1,50 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Recorrência mensal a partir de {@code mes}/{@code ano}: em {@code parcelas}, até {@code mesFinal}/{@code anoFinal}
+ * ou, sem nenhum dos dois, sem fim. {@code geradas} é devolvido com a quantidade de lançamentos já gravados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecorrenciaDTO {
+
+    private Long id;
+    private String descricao;
+    private BigDecimal valor;
+    private Long usuario;
+    private String tipo;
+    private Integer mes;
+    private Integer ano;
+    private Integer parcelas;
+    private Integer mesFinal;
+    private Integer anoFinal;
+    private Integer geradas;
+
+    public static RecorrenciaDTO de(Recorrencia recorrencia) {
+        return RecorrenciaDTO.builder()
+                .id(recorrencia.getId())
+                .descricao(recorrencia.getDescricao())
+                .valor(recorrencia.getValor())
+                .usuario(Objects.isNull(recorrencia.getUsuario()) ? null : recorrencia.getUsuario().getId())
+                .tipo(Objects.toString(recorrencia.getTipo(), null))
+                .mes(recorrencia.getMesInicial())
+                .ano(recorrencia.getAnoInicial())
+                .parcelas(recorrencia.getParcelas())
+                .mesFinal(recorrencia.getMesFinal())
+                .anoFinal(recorrencia.getAnoFinal())
+                .geradas(recorrencia.getGeradas())
+                .build();
+    }
+
+}
@@ -0,0 +1,10 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResultadoAtualizacaoStatusDTO {
+    private Integer atualizados;
+}
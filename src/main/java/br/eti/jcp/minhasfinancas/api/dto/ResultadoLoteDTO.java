@@ -0,0 +1,24 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ResultadoLoteDTO {
+
+    private Integer salvos;
+    private List<Long> ids;
+    private List<Erro> erros;
+
+    @Data
+    @AllArgsConstructor
+    public static class Erro {
+        private Integer indice;
+        private String mensagem;
+    }
+
+}
@@ -0,0 +1,31 @@
+package br.eti.jcp.minhasfinancas.api.dto;
+
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class ResumoMensalDTO {
+
+    private Integer ano;
+    private Integer mes;
+    private String tipo;
+    private String status;
+    private Long quantidade;
+    private BigDecimal total;
+
+    public static ResumoMensalDTO de(ResumoMensal resumo) {
+        return ResumoMensalDTO.builder()
+                .ano(resumo.getId().getAno())
+                .mes(resumo.getId().getMes())
+                .tipo(resumo.getId().getTipo().name())
+                .status(resumo.getId().getStatus().name())
+                .quantidade(resumo.getQuantidade())
+                .total(resumo.getTotal())
+                .build();
+    }
+
+}
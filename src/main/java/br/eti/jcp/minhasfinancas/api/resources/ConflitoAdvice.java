@@ -0,0 +1,20 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Lançamento alterado por outra operação entre a leitura e a gravação (versão ou status divergentes).
+ */
+@RestControllerAdvice
+public class ConflitoAdvice {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity conflito() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("O lançamento foi alterado por outra operação. Recarregue e tente novamente.");
+    }
+}
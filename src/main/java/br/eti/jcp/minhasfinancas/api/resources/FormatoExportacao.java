@@ -0,0 +1,75 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+public enum FormatoExportacao {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson") {
+        @Override
+        void escreverCabecalho(Writer writer) {
+        }
+
+        @Override
+        void escrever(Writer writer, ObjectWriter json, LancamentoResumo lancamento) throws IOException {
+            json.writeValue(writer, lancamento);
+            writer.write('\n');
+        }
+    },
+
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv") {
+        @Override
+        void escreverCabecalho(Writer writer) throws IOException {
+            writer.write("id,descricao,mes,ano,valor,tipo,status,data_cadastro\n");
+        }
+
+        @Override
+        void escrever(Writer writer, ObjectWriter json, LancamentoResumo lancamento) throws IOException {
+            writer.write(String.valueOf(lancamento.getId()));
+            writer.write(',');
+            writer.write(aspas(lancamento.getDescricao()));
+            writer.write(',');
+            writer.write(String.valueOf(lancamento.getMes()));
+            writer.write(',');
+            writer.write(String.valueOf(lancamento.getAno()));
+            writer.write(',');
+            writer.write(lancamento.getValor().toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(lancamento.getTipo()));
+            writer.write(',');
+            writer.write(String.valueOf(lancamento.getStatus()));
+            writer.write(',');
+            writer.write(Objects.toString(lancamento.getDataCadastro(), ""));
+            writer.write('\n');
+        }
+    };
+
+    private final MediaType mediaType;
+    private final String extensao;
+
+    FormatoExportacao(MediaType mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    abstract void escreverCabecalho(Writer writer) throws IOException;
+
+    abstract void escrever(Writer writer, ObjectWriter json, LancamentoResumo lancamento) throws IOException;
+
+    private static String aspas(String valor) {
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,65 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import br.eti.jcp.minhasfinancas.api.dto.LancamentoDTO;
+import br.eti.jcp.minhasfinancas.api.security.AutenticacaoInterceptor;
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.services.IngestaoLancamentoService;
+import br.eti.jcp.minhasfinancas.services.UsuarioService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Inclusão pela fila de gravação adiada ({@link IngestaoLancamentoService}). Por padrão responde 202 assim
+ * que o lançamento é validado e aceito na fila; com {@code aguardar=true} responde 201 só depois do commit
+ * do lote que o gravou.
+ */
+@RestController
+@RequestMapping("/api/lancamentos/ingestao")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minhasfinancas.ingestao.habilitada", havingValue = "true")
+public class IngestaoLancamentoResource {
+
+    private final IngestaoLancamentoService service;
+    private final UsuarioService usuarioService;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity> enfileirar(@RequestBody LancamentoDTO dto,
+                                                        @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario,
+                                                        @RequestParam(value = "aguardar", defaultValue = "false") boolean aguardar) {
+        if (Objects.nonNull(dto.getUsuario()) && !dto.getUsuario().equals(idUsuario)) {
+            return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.FORBIDDEN));
+        }
+        CompletableFuture<Lancamento> gravado;
+        try {
+            gravado = service.enfileirar(LancamentoResource.converterInclusao(dto, usuarioService.obterReferencia(idUsuario)));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Tipo ou status de lançamento inválido"));
+        } catch (RegraDeNegocioException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+        if (!aguardar) {
+            return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.ACCEPTED));
+        }
+        return gravado.<ResponseEntity>thenApply(lancamento -> new ResponseEntity(LancamentoDTO.de(lancamento), HttpStatus.CREATED))
+                .exceptionally(erro -> {
+                    Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+                    if (causa instanceof RegraDeNegocioException) {
+                        return ResponseEntity.badRequest().body(causa.getMessage());
+                    }
+                    throw erro instanceof CompletionException ? (CompletionException) erro : new CompletionException(causa);
+                });
+    }
+}
@@ -1,15 +1,35 @@
 package br.eti.jcp.minhasfinancas.api.resources;
 
 import br.eti.jcp.minhasfinancas.api.dto.AtualizacaoStatusDTO;
+import br.eti.jcp.minhasfinancas.api.dto.AtualizacaoStatusLoteDTO;
 import br.eti.jcp.minhasfinancas.api.dto.LancamentoDTO;
+import br.eti.jcp.minhasfinancas.api.dto.LoteLancamentoDTO;
+import br.eti.jcp.minhasfinancas.api.dto.PaginaLancamentoDTO;
+import br.eti.jcp.minhasfinancas.api.dto.RecorrenciaDTO;
+import br.eti.jcp.minhasfinancas.api.dto.ResultadoAtualizacaoStatusDTO;
+import br.eti.jcp.minhasfinancas.api.dto.ResultadoLoteDTO;
+import br.eti.jcp.minhasfinancas.api.dto.ResumoMensalDTO;
+import br.eti.jcp.minhasfinancas.api.security.AutenticacaoInterceptor;
+import br.eti.jcp.minhasfinancas.config.ExecutoresPersistencia;
 import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
 import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
 import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.CursorLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.PaginaLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
 import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import br.eti.jcp.minhasfinancas.services.RecorrenciaService;
+import br.eti.jcp.minhasfinancas.services.ResumoMensalService;
 import br.eti.jcp.minhasfinancas.services.UsuarioService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,14 +37,25 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/lancamentos")
@@ -33,81 +64,307 @@ public class LancamentoResource {
 
     private final LancamentoService service;
     private final UsuarioService usuarioService;
+    private final ResumoMensalService resumoMensalService;
+    private final ObjectMapper objectMapper;
+    private final ExecutoresPersistencia executores;
+    private final RespostaCondicional respostaCondicional;
+    private final RecorrenciaService recorrenciaService;
 
     @GetMapping
-    public ResponseEntity buscar(
+    public CompletableFuture<ResponseEntity> buscar(
             @RequestParam(value = "descricao", required = false) String descricao,
             @RequestParam(value = "mes", required = false) Integer mes,
             @RequestParam(value = "ano", required = false) Integer ano,
-            @RequestParam("usuario") Long idUsuario) {
-        Lancamento lancamentoFiltro = new Lancamento();
-        lancamentoFiltro.setDescricao(descricao);
-        lancamentoFiltro.setMes(mes);
-        lancamentoFiltro.setAno(ano);
-        Optional<Usuario> usuario = usuarioService.carregarPorId(idUsuario);
-        if (usuario.isEmpty()) {
-            return ResponseEntity.badRequest().body("Usuario não encontrado");
-        } else {
-            lancamentoFiltro.setUsuario(usuario.get());
+            @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        return executores.busca(() -> respostaCondicional.responder(idUsuario, seNenhumCorresponder, () -> {
+                    Lancamento lancamentoFiltro = new Lancamento();
+                    lancamentoFiltro.setDescricao(descricao);
+                    lancamentoFiltro.setMes(mes);
+                    lancamentoFiltro.setAno(ano);
+                    lancamentoFiltro.setUsuario(usuarioService.obterReferencia(idUsuario));
+                    List<LancamentoResumo> lancamentos = service.buscar(lancamentoFiltro);
+                    return ResponseEntity.ok(lancamentos);
+                }));
+    }
+
+    @GetMapping("/pagina")
+    public CompletableFuture<ResponseEntity> buscarPagina(
+            @RequestParam(value = "descricao", required = false) String descricao,
+            @RequestParam(value = "mes", required = false) Integer mes,
+            @RequestParam(value = "ano", required = false) Integer ano,
+            @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "tamanho", required = false) Integer tamanho,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        return executores.busca(() -> respostaCondicional.responder(idUsuario, seNenhumCorresponder, () -> {
+                    Lancamento lancamentoFiltro = new Lancamento();
+                    lancamentoFiltro.setDescricao(descricao);
+                    lancamentoFiltro.setMes(mes);
+                    lancamentoFiltro.setAno(ano);
+                    lancamentoFiltro.setUsuario(usuarioService.obterReferencia(idUsuario));
+                    try {
+                        PaginaLancamento pagina = service.buscarPagina(lancamentoFiltro, CursorLancamento.decodificar(cursor), tamanho);
+                        return ResponseEntity.ok(PaginaLancamentoDTO.builder()
+                                .lancamentos(pagina.getLancamentos())
+                                .proximoCursor(pagina.getProximo().map(CursorLancamento::codificar).orElse(null))
+                                .build());
+                    } catch (RegraDeNegocioException e) {
+                        return ResponseEntity.badRequest().body(e.getMessage());
+                    }
+                }));
+    }
+
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario,
+            @RequestParam(value = "formato", defaultValue = "ndjson") String formato) {
+        FormatoExportacao formatoExportacao;
+        try {
+            formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(mensagem("Formato de exportação inválido"));
         }
-        List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-        return ResponseEntity.ok(lancamentos);
+        ObjectWriter json = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody corpo = saida -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            formatoExportacao.escreverCabecalho(writer);
+            service.exportar(idUsuario, lancamento -> {
+                try {
+                    formatoExportacao.escrever(writer, json, lancamento);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(formatoExportacao.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"lancamentos." + formatoExportacao.getExtensao() + "\"")
+                .body(corpo);
     }
+
+    @GetMapping("/resumo-mensal")
+    public CompletableFuture<ResponseEntity> resumoMensal(@RequestParam("ano") Integer ano,
+                                                          @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        return executores.leitura(() -> respostaCondicional.responder(idUsuario, seNenhumCorresponder, () -> {
+                    List<ResumoMensalDTO> resumos = resumoMensalService.buscar(idUsuario, ano).stream()
+                            .map(ResumoMensalDTO::de)
+                            .collect(Collectors.toList());
+                    return ResponseEntity.ok(resumos);
+                }));
+    }
+
+    @PostMapping("/resumo-mensal/reconstruir")
+    public CompletableFuture<ResponseEntity> reconstruirResumoMensal(@RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        return executores.escrita(() -> {
+            resumoMensalService.reconstruir(idUsuario);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        });
+    }
+
     @PostMapping
-    public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
+    public CompletableFuture<ResponseEntity> salvar(@RequestBody LancamentoDTO dto, @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        if (!pertenceAoUsuario(dto.getUsuario(), idUsuario)) {
+            return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.FORBIDDEN));
+        }
+        return executores.escrita(() -> {
+            try {
+                Lancamento lancamento = converterInclusao(dto, usuarioService.obterReferencia(idUsuario));
+                lancamento = service.salvar(lancamento);
+                return new ResponseEntity(LancamentoDTO.de(lancamento), HttpStatus.CREATED);
+            } catch (RegraDeNegocioException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    @PostMapping("/lote")
+    public CompletableFuture<ResponseEntity> salvarLote(@RequestBody LoteLancamentoDTO dto, @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        if (Objects.isNull(dto.getLancamentos())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Informe os lançamentos do lote"));
+        }
+        if (!pertenceAoUsuario(dto.getUsuario(), idUsuario)) {
+            return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.FORBIDDEN));
+        }
+        return executores.escrita(() -> processarLote(dto, idUsuario));
+    }
+
+    private ResponseEntity processarLote(LoteLancamentoDTO dto, Long idUsuario) {
+        Usuario usuario = usuarioService.obterReferencia(idUsuario);
+        List<ResultadoLoteDTO.Erro> erros = new ArrayList<>();
+        List<Lancamento> lancamentos = new ArrayList<>(dto.getLancamentos().size());
+        List<Integer> indices = new ArrayList<>(dto.getLancamentos().size());
+        for (int i = 0; i < dto.getLancamentos().size(); i++) {
+            try {
+                if (!pertenceAoUsuario(dto.getLancamentos().get(i).getUsuario(), idUsuario)) {
+                    erros.add(new ResultadoLoteDTO.Erro(i, "Lançamento de outro usuário"));
+                    continue;
+                }
+                lancamentos.add(converterInclusao(dto.getLancamentos().get(i), usuario));
+                indices.add(i);
+            } catch (IllegalArgumentException e) {
+                erros.add(new ResultadoLoteDTO.Erro(i, "Tipo ou status de lançamento inválido"));
+            }
+        }
         try {
-            Lancamento lancamento = converter(dto);
-            lancamento = service.salvar(lancamento);
-            return new ResponseEntity(lancamento, HttpStatus.CREATED);
+            ResultadoLote resultado = service.salvarEmLote(usuario, lancamentos);
+            resultado.getErros().forEach((indice, mensagem) -> erros.add(new ResultadoLoteDTO.Erro(indices.get(indice), mensagem)));
+            erros.sort((a, b) -> a.getIndice().compareTo(b.getIndice()));
+            List<Long> ids = new ArrayList<>(resultado.getSalvos().size());
+            resultado.getSalvos().forEach(lancamento -> ids.add(lancamento.getId()));
+            ResultadoLoteDTO corpo = ResultadoLoteDTO.builder().salvos(ids.size()).ids(ids).erros(erros).build();
+            return new ResponseEntity(corpo, ids.isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED);
         } catch (RegraDeNegocioException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Cria a recorrência e grava as ocorrências em um único lote (todas as parcelas, ou até o horizonte de
+     * geração nas recorrências sem parcelas).
+     */
+    @PostMapping("/recorrencias")
+    public CompletableFuture<ResponseEntity> salvarRecorrencia(@RequestBody RecorrenciaDTO dto,
+                                                               @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        if (!pertenceAoUsuario(dto.getUsuario(), idUsuario)) {
+            return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.FORBIDDEN));
+        }
+        TipoLancamento tipo;
+        try {
+            tipo = Objects.isNull(dto.getTipo()) ? null : TipoLancamento.valueOf(dto.getTipo());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Tipo de lançamento inválido"));
+        }
+        return executores.escrita(() -> {
+            Recorrencia recorrencia = Recorrencia.builder()
+                    .descricao(dto.getDescricao())
+                    .valor(dto.getValor())
+                    .usuario(usuarioService.obterReferencia(idUsuario))
+                    .tipo(tipo)
+                    .mesInicial(dto.getMes())
+                    .anoInicial(dto.getAno())
+                    .parcelas(dto.getParcelas())
+                    .mesFinal(dto.getMesFinal())
+                    .anoFinal(dto.getAnoFinal())
+                    .build();
+            try {
+                return new ResponseEntity(RecorrenciaDTO.de(recorrenciaService.salvar(recorrencia)), HttpStatus.CREATED);
+            } catch (RegraDeNegocioException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
     @PutMapping("{id}")
-    public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-        return service.carregarPorId(id).map(entity -> {
+    public CompletableFuture<ResponseEntity> atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto,
+                                                       @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        return executores.escrita(() -> service.carregarPorId(id).map(entity -> {
+            if (!pertenceAoUsuario(entity.getUsuario().getId(), idUsuario) || !pertenceAoUsuario(dto.getUsuario(), idUsuario)) {
+                return new ResponseEntity(HttpStatus.FORBIDDEN);
+            }
+            if (Objects.isNull(dto.getVersao())) {
+                return new ResponseEntity("Informe a versão do lançamento.", HttpStatus.PRECONDITION_REQUIRED);
+            }
+            if (Objects.nonNull(dto.getStatus()) && !dto.getStatus().equals(entity.getStatus().name())) {
+                return ResponseEntity.badRequest().body("O status é alterado somente por atualizar-status.");
+            }
             try {
-                Lancamento lancamento = converter(dto);
+                Lancamento lancamento = converter(dto, entity.getUsuario());
                 lancamento.setId(entity.getId());
-                service.atualizar(lancamento);
-                return ResponseEntity.ok(lancamento);
+                return ResponseEntity.ok(LancamentoDTO.de(service.atualizar(lancamento)));
             } catch (RegraDeNegocioException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             }
-        }).orElse( new ResponseEntity("Lancamento não encontrado.", HttpStatus.BAD_REQUEST));
+        }).orElse( new ResponseEntity("Lancamento não encontrado.", HttpStatus.BAD_REQUEST)));
     }
 
     @PutMapping("{id}/atualizar-status")
-    public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizacaoStatusDTO dto) {
-        return service.carregarPorId(id).map(entity -> {
+    public CompletableFuture<ResponseEntity> atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizacaoStatusDTO dto,
+                                                             @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        return executores.escrita(() -> service.carregarPorId(id).map(entity -> {
+            if (!pertenceAoUsuario(entity.getUsuario().getId(), idUsuario)) {
+                return new ResponseEntity(HttpStatus.FORBIDDEN);
+            }
             StatusLancamento statusLancamento = StatusLancamento.valueOf(dto.getStatus());
             if (statusLancamento == null) {
                 return ResponseEntity.badRequest().body("Status invalido");
             }
             try {
-                entity.setStatus(statusLancamento);
-                service.atualizar(entity);
-                return ResponseEntity.ok(entity);
+                service.atualizarStatus(entity, statusLancamento);
+                return ResponseEntity.ok(LancamentoDTO.de(entity));
+            } catch (RegraDeNegocioException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }).orElse( new ResponseEntity("Lancamento não encontrado.", HttpStatus.BAD_REQUEST)));
+    }
+
+    @PutMapping("atualizar-status")
+    public CompletableFuture<ResponseEntity> atualizarStatusEmLote(@RequestBody AtualizacaoStatusLoteDTO dto,
+                                                                   @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        StatusLancamento status;
+        StatusLancamento statusAtual;
+        try {
+            status = StatusLancamento.valueOf(Objects.requireNonNull(dto.getStatus()));
+            statusAtual = Objects.isNull(dto.getStatusAtual()) ? null : StatusLancamento.valueOf(dto.getStatusAtual());
+        } catch (NullPointerException | IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Status invalido"));
+        }
+        return executores.escrita(() -> {
+            Lancamento lancamentoFiltro = new Lancamento();
+            lancamentoFiltro.setUsuario(usuarioService.obterReferencia(idUsuario));
+            lancamentoFiltro.setAno(dto.getAno());
+            lancamentoFiltro.setMes(dto.getMes());
+            lancamentoFiltro.setStatus(statusAtual);
+            try {
+                int atualizados = service.atualizarStatusEmLote(lancamentoFiltro, dto.getIds(), status);
+                return ResponseEntity.ok(new ResultadoAtualizacaoStatusDTO(atualizados));
             } catch (RegraDeNegocioException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             }
-        }).orElse( new ResponseEntity("Lancamento não encontrado.", HttpStatus.BAD_REQUEST));
+        });
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity excluir(@PathVariable("id") Long id) {
-        return service.carregarPorId(id).map(entity -> {
+    public CompletableFuture<ResponseEntity> excluir(@PathVariable("id") Long id, @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario) {
+        return executores.escrita(() -> service.carregarPorId(id).map(entity -> {
+            if (!pertenceAoUsuario(entity.getUsuario().getId(), idUsuario)) {
+                return new ResponseEntity(HttpStatus.FORBIDDEN);
+            }
             try {
                 service.excluir(entity);
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             } catch (RegraDeNegocioException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             }
-        }).orElse( new ResponseEntity("Lancamento não encontrado.", HttpStatus.BAD_REQUEST));
+        }).orElse( new ResponseEntity("Lancamento não encontrado.", HttpStatus.BAD_REQUEST)));
+    }
+
+    private static StreamingResponseBody mensagem(String mensagem) {
+        return saida -> saida.write(mensagem.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * O usuário informado no corpo é opcional; quando presente deve ser o mesmo do token.
+     */
+    private static boolean pertenceAoUsuario(Long idInformado, Long idUsuario) {
+        return Objects.isNull(idInformado) || idInformado.equals(idUsuario);
     }
-    private Lancamento converter(LancamentoDTO dto) {
-        Usuario usuario = usuarioService.carregarPorId(dto.getUsuario()).orElseThrow(() -> new RegraDeNegocioException("Usuario não encontrado"));
+
+    /**
+     * Conversão para inclusão: id e versão vêm sempre do banco. Um id informado pelo cliente faria o
+     * {@code save} mesclar o lançamento sobre a linha existente, ainda que de outro usuário.
+     */
+    static Lancamento converterInclusao(LancamentoDTO dto, Usuario usuario) {
+        Lancamento lancamento = converter(dto, usuario);
+        lancamento.setId(null);
+        lancamento.setVersao(null);
+        return lancamento;
+    }
+
+    static Lancamento converter(LancamentoDTO dto, Usuario usuario) {
         Lancamento lancamento = new Lancamento();
         lancamento.setId(dto.getId());
         lancamento.setDescricao(dto.getDescricao());
@@ -115,6 +372,7 @@ public class LancamentoResource {
         lancamento.setMes(dto.getMes());
         lancamento.setValor(dto.getValor());
         lancamento.setUsuario(usuario);
+        lancamento.setVersao(dto.getVersao());
         if (Objects.nonNull(dto.getTipo())) {
             lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
         }
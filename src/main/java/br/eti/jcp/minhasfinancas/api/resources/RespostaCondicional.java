@@ -0,0 +1,88 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * GET condicional pela versão dos lançamentos do usuário ({@link VersaoUsuarioService}). A ETag é formada
+ * pelo usuário e pela versão; um {@code If-None-Match} que ainda corresponde recebe 304 sem que a consulta
+ * seja executada.
+ * <p>
+ * A ETag é fraca: a mesma versão é servida em JSON, CBOR ou Smile e com ou sem compressão, representações
+ * equivalentes mas não idênticas byte a byte (o Tomcat também não comprime respostas com ETag forte).
+ * <p>
+ * A versão é lida antes da consulta e na mesma transação: com réplicas de leitura as duas vêm da mesma
+ * réplica, e uma ETag nunca é mais nova que os dados. Uma alteração concorrente pode fazer a resposta trazer
+ * dados mais novos que a ETag, o que custa no máximo uma resposta completa a mais, nunca um 304 indevido.
+ */
+@Component
+public class RespostaCondicional {
+
+    // o cliente guarda a resposta, mas sempre revalida; caches compartilhados não, pois a URL não identifica o usuário
+    private static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
+    private final VersaoUsuarioService versaoUsuarioService;
+
+    public RespostaCondicional(VersaoUsuarioService versaoUsuarioService) {
+        this.versaoUsuarioService = versaoUsuarioService;
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseEntity responder(Long idUsuario, String seNenhumCorresponder, Supplier<ResponseEntity> consulta) {
+        return responder(idUsuario, versaoUsuarioService.obterVersao(idUsuario), seNenhumCorresponder, consulta);
+    }
+
+    /**
+     * Para consultas que preenchem caches: versão e dados lidos no primário, para que o cache não guarde o
+     * valor de uma réplica atrasada logo depois de invalidado por uma alteração.
+     */
+    @Transactional
+    public ResponseEntity responderDoPrimario(Long idUsuario, String seNenhumCorresponder,
+                                              Supplier<ResponseEntity> consulta) {
+        return responder(idUsuario, versaoUsuarioService.obterVersao(idUsuario), seNenhumCorresponder, consulta);
+    }
+
+    private static ResponseEntity responder(Long idUsuario, long versao, String seNenhumCorresponder,
+                                            Supplier<ResponseEntity> consulta) {
+        String etag = "W/\"" + idUsuario + "-" + versao + "\"";
+        if (corresponde(seNenhumCorresponder, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(REVALIDAR)
+                    .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT)
+                    .build();
+        }
+        ResponseEntity resposta = consulta.get();
+        if (!resposta.getStatusCode().is2xxSuccessful()) {
+            return resposta;
+        }
+        return ResponseEntity.status(resposta.getStatusCode())
+                .headers(resposta.getHeaders())
+                .eTag(etag)
+                .cacheControl(REVALIDAR)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT)
+                .body(resposta.getBody());
+    }
+
+    private static boolean corresponde(String seNenhumCorresponder, String etag) {
+        if (Objects.isNull(seNenhumCorresponder)) {
+            return false;
+        }
+        for (String candidata : seNenhumCorresponder.split(",")) {
+            String valor = candidata.trim();
+            // If-None-Match usa comparação fraca
+            if (valor.equals("*") || valor.equals(etag) || ("W/" + valor).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Fila do executor de persistência cheia: recusa rápida, para o cliente tentar de novo em seguida.
+ */
+@RestControllerAdvice
+public class SobrecargaAdvice {
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity sobrecarga() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Servidor sobrecarregado, tente novamente.");
+    }
+}
@@ -1,23 +1,30 @@
 package br.eti.jcp.minhasfinancas.api.resources;
 
+import br.eti.jcp.minhasfinancas.api.dto.UsuarioAutenticadoDTO;
 import br.eti.jcp.minhasfinancas.api.dto.UsuarioDTO;
+import br.eti.jcp.minhasfinancas.api.security.AutenticacaoInterceptor;
+import br.eti.jcp.minhasfinancas.config.ExecutoresPersistencia;
 import br.eti.jcp.minhasfinancas.exceptions.AutenticacaoException;
 import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import br.eti.jcp.minhasfinancas.services.TokenService;
 import br.eti.jcp.minhasfinancas.services.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -26,12 +33,20 @@ public class UsuarioResource {
 
     private final UsuarioService service;
     private final LancamentoService lancamentoService;
+    private final TokenService tokenService;
+    private final ExecutoresPersistencia executores;
+    private final RespostaCondicional respostaCondicional;
 
     @PostMapping("/autenticar")
     public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
         try {
             Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-            return ResponseEntity.ok(usuarioAutenticado);
+            return ResponseEntity.ok(UsuarioAutenticadoDTO.builder()
+                    .id(usuarioAutenticado.getId())
+                    .nome(usuarioAutenticado.getNome())
+                    .email(usuarioAutenticado.getEmail())
+                    .token(tokenService.gerar(usuarioAutenticado))
+                    .build());
         } catch (AutenticacaoException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -53,12 +68,17 @@ public class UsuarioResource {
     }
 
     @GetMapping("{id}/saldo")
-    public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
-        Optional<Usuario> usuario = service.carregarPorId(id);
-        if (usuario.isEmpty()) {
-            return new ResponseEntity(HttpStatus.NOT_FOUND);
+    public CompletableFuture<ResponseEntity> obterSaldo(@PathVariable("id") Long id,
+                                                        @RequestAttribute(AutenticacaoInterceptor.ID_USUARIO) Long idUsuario,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        // o token já garante que o usuário existe; só é preciso conferir que o saldo é dele
+        if (!id.equals(idUsuario)) {
+            return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.FORBIDDEN));
         }
-        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-        return ResponseEntity.ok(saldo);
+        // o saldo lido alimenta o cache: vem do primário, não de uma réplica
+        return executores.leitura(() -> respostaCondicional.responderDoPrimario(id, seNenhumCorresponder, () -> {
+                    BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+                    return ResponseEntity.ok(saldo);
+                }));
     }
 }
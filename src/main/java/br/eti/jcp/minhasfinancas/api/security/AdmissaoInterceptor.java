@@ -0,0 +1,58 @@
+package br.eti.jcp.minhasfinancas.api.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Aplica o {@link ControleAdmissao} ao usuário autenticado, depois do {@link AutenticacaoInterceptor}: acima
+ * dos limites responde 429 com {@code Retry-After}, sem chegar ao controlador. Nos handlers assíncronos a vaga
+ * é reservada no despacho inicial e liberada ao fim do despacho assíncrono, quando a resposta fica pronta.
+ */
+public class AdmissaoInterceptor implements HandlerInterceptor {
+
+    private static final String ADMISSAO = "minhasfinancas.admissao";
+
+    private final ControleAdmissao controleAdmissao;
+
+    public AdmissaoInterceptor(ControleAdmissao controleAdmissao) {
+        this.controleAdmissao = controleAdmissao;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Object idUsuario = request.getAttribute(AutenticacaoInterceptor.ID_USUARIO);
+        if (HttpMethod.OPTIONS.matches(request.getMethod()) || request.getDispatcherType() == DispatcherType.ASYNC
+                || idUsuario == null) {
+            return true;
+        }
+        ControleAdmissao.Admissao admissao = controleAdmissao.admitir((Long) idUsuario);
+        if (!admissao.isAdmitida()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(admissao.getEsperaSegundos()));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Muitas requisições, tente novamente.");
+            return false;
+        }
+        request.setAttribute(ADMISSAO, admissao);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object admissao = request.getAttribute(ADMISSAO);
+        if (admissao != null) {
+            request.removeAttribute(ADMISSAO);
+            ((ControleAdmissao.Admissao) admissao).liberar();
+        }
+    }
+}
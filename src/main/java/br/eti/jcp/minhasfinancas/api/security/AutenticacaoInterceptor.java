@@ -0,0 +1,62 @@
+package br.eti.jcp.minhasfinancas.api.security;
+
+import br.eti.jcp.minhasfinancas.exceptions.AutenticacaoException;
+import br.eti.jcp.minhasfinancas.services.TokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exige um token válido em {@code Authorization: Bearer} e publica o id do usuário autenticado no atributo
+ * {@link #ID_USUARIO} da requisição. Um parâmetro {@code usuario} diferente do token é recusado.
+ */
+public class AutenticacaoInterceptor implements HandlerInterceptor {
+
+    public static final String ID_USUARIO = "minhasfinancas.idUsuario";
+
+    private static final String PREFIXO = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public AutenticacaoInterceptor(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return true;
+        }
+        String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecalho == null || !cabecalho.startsWith(PREFIXO)) {
+            return recusar(response, HttpStatus.UNAUTHORIZED, "Token de acesso não informado.");
+        }
+        Long idUsuario;
+        try {
+            idUsuario = tokenService.validar(cabecalho.substring(PREFIXO.length()));
+        } catch (AutenticacaoException e) {
+            return recusar(response, HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+        String usuario = request.getParameter("usuario");
+        if (usuario != null && !usuario.equals(idUsuario.toString())) {
+            return recusar(response, HttpStatus.FORBIDDEN, "Acesso negado.");
+        }
+        request.setAttribute(ID_USUARIO, idUsuario);
+        return true;
+    }
+
+    private static boolean recusar(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensagem);
+        return false;
+    }
+}
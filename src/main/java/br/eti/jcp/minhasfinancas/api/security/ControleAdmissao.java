@@ -0,0 +1,149 @@
+package br.eti.jcp.minhasfinancas.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limites por usuário na API: taxa de requisições (balde de fichas com rajada) e requisições simultâneas,
+ * para que um cliente sozinho não ocupe os executores e as conexões de todos.
+ * <p>
+ * O balde é mantido pelo instante teórico da próxima chegada (GCRA), um único {@code long} atualizado por
+ * compare-and-set; a concorrência, por um contador atômico por usuário. Os totais das métricas usam
+ * {@link LongAdder}, que distribui as somas entre células e não disputa uma mesma variável entre threads.
+ * O estado de usuários inativos é descartado.
+ */
+@Component
+public class ControleAdmissao implements MeterBinder {
+
+    private final Cache<Long, Estado> estados;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final int concorrencia;
+
+    private final LongAdder admitidas = new LongAdder();
+    private final LongAdder recusadasPorTaxa = new LongAdder();
+    private final LongAdder recusadasPorConcorrencia = new LongAdder();
+    private final LongAdder emAndamento = new LongAdder();
+
+    public ControleAdmissao(@Value("${minhasfinancas.admissao.requisicoes-por-segundo:20}") double requisicoesPorSegundo,
+                            @Value("${minhasfinancas.admissao.rajada:40}") int rajada,
+                            @Value("${minhasfinancas.admissao.concorrencia:4}") int concorrencia,
+                            @Value("${minhasfinancas.admissao.usuarios-maximo:100000}") long usuariosMaximo) {
+        this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requisicoesPorSegundo);
+        this.toleranciaNanos = intervaloNanos * (rajada - 1);
+        this.concorrencia = concorrencia;
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(usuariosMaximo)
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Reserva uma vaga para a requisição do usuário; a admissão deve ser liberada ao fim da requisição.
+     */
+    public Admissao admitir(Long idUsuario) {
+        Estado estado = estados.get(idUsuario, id -> new Estado(System.nanoTime()));
+        if (estado.emAndamento.incrementAndGet() > concorrencia) {
+            estado.emAndamento.decrementAndGet();
+            recusadasPorConcorrencia.increment();
+            return new Admissao(null, 1);
+        }
+        long espera = consumirFicha(estado);
+        if (espera > 0) {
+            estado.emAndamento.decrementAndGet();
+            recusadasPorTaxa.increment();
+            return new Admissao(null, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        admitidas.increment();
+        emAndamento.increment();
+        return new Admissao(estado, 0);
+    }
+
+    /**
+     * Nanossegundos até haver ficha, ou zero quando a ficha foi consumida.
+     */
+    private long consumirFicha(Estado estado) {
+        while (true) {
+            long agora = System.nanoTime();
+            long chegadaTeorica = estado.chegadaTeorica.get();
+            long inicio = Math.max(chegadaTeorica, agora);
+            long espera = inicio - agora - toleranciaNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (estado.chegadaTeorica.compareAndSet(chegadaTeorica, inicio + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        contador(registry, "admitida", admitidas);
+        contador(registry, "taxa", recusadasPorTaxa);
+        contador(registry, "concorrencia", recusadasPorConcorrencia);
+        Gauge.builder("admissao.em.andamento", emAndamento, LongAdder::sum)
+                .description("Requisições admitidas ainda em execução")
+                .register(registry);
+        Gauge.builder("admissao.usuarios", estados, Cache::estimatedSize)
+                .description("Usuários com estado de admissão em memória")
+                .register(registry);
+    }
+
+    private static void contador(MeterRegistry registry, String resultado, LongAdder total) {
+        FunctionCounter.builder("admissao.requisicoes", total, LongAdder::sum)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Resultado de {@link #admitir}: admitida, ou recusada com o tempo sugerido para nova tentativa.
+     */
+    public final class Admissao {
+
+        private final Estado estado;
+        private final long esperaSegundos;
+
+        private Admissao(Estado estado, long esperaSegundos) {
+            this.estado = estado;
+            this.esperaSegundos = esperaSegundos;
+        }
+
+        public boolean isAdmitida() {
+            return estado != null;
+        }
+
+        public long getEsperaSegundos() {
+            return esperaSegundos;
+        }
+
+        public void liberar() {
+            if (estado != null) {
+                // o próprio estado reservado, ainda que já descartado do cache
+                estado.emAndamento.decrementAndGet();
+                emAndamento.decrement();
+            }
+        }
+    }
+
+    private static final class Estado {
+
+        private final AtomicLong chegadaTeorica;
+        private final AtomicInteger emAndamento = new AtomicInteger();
+
+        private Estado(long agora) {
+            this.chegadaTeorica = new AtomicLong(agora);
+        }
+    }
+}
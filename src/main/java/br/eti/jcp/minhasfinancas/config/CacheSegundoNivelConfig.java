@@ -0,0 +1,65 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de segundo nível do Hibernate em memória (Caffeine via JCache), com regiões limitadas em tamanho e
+ * expiração. Usuários quase nunca mudam e são lidos a cada login e a cada associação inicializada; as
+ * alterações feitas pelo Hibernate atualizam o cache, e a expiração limita o tempo em que uma alteração
+ * feita por fora (SQL direto) fica invisível.
+ * <p>
+ * Acertos e faltas por região são publicados pelas estatísticas do Hibernate (métricas
+ * {@code hibernate.second.level.cache.requests} e {@code hibernate.cache.query.requests}).
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheSegundoNivel(
+            @Value("${minhasfinancas.cache.usuario.tamanho-maximo:10000}") long tamanhoUsuarios,
+            @Value("${minhasfinancas.cache.usuario.expiracao-segundos:3600}") long expiracaoUsuarios,
+            @Value("${minhasfinancas.cache.consultas.tamanho-maximo:10000}") long tamanhoConsultas,
+            @Value("${minhasfinancas.cache.consultas.expiracao-segundos:300}") long expiracaoConsultas) {
+        // URI própria: cada contexto Spring tem o seu gerenciador, sem compartilhar regiões entre eles
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("minhasfinancas:" + System.identityHashCode(this)), getClass().getClassLoader());
+        cacheManager.createCache(Usuario.REGIAO_CACHE, limitada(tamanhoUsuarios, expiracaoUsuarios));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                limitada(tamanhoConsultas, expiracaoConsultas));
+        // uma entrada por tabela, que não pode ser descartada enquanto houver consultas em cache
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, configuracao());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelHibernate(CacheManager cacheSegundoNivel) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheSegundoNivel);
+    }
+
+    private static CaffeineConfiguration<Object, Object> limitada(long tamanhoMaximo, long expiracaoSegundos) {
+        CaffeineConfiguration<Object, Object> configuracao = configuracao();
+        configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+        configuracao.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(expiracaoSegundos)));
+        return configuracao;
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuracao() {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setStatisticsEnabled(true);
+        return configuracao;
+    }
+}
@@ -0,0 +1,94 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Executores limitados que fazem o acesso ao banco fora das threads do Tomcat, um por classe de carga:
+ * leituras baratas (saldo, resumo mensal), buscas de lançamentos e escritas. Cada um tem threads e fila
+ * próprias, de modo que buscas lentas esgotam só o próprio executor e não atrasam a consulta de saldo.
+ * Com a fila cheia a tarefa é recusada na hora com {@link TaskRejectedException} (503 na API), em vez de
+ * esperar indefinidamente.
+ * <p>
+ * A soma das threads deve caber no pool de conexões (10 por padrão no Hikari), para que nenhuma
+ * classe fique esperando conexão presa por outra.
+ */
+@Component
+public class ExecutoresPersistencia implements MeterBinder, DisposableBean {
+
+    private final ThreadPoolTaskExecutor leitura;
+    private final ThreadPoolTaskExecutor busca;
+    private final ThreadPoolTaskExecutor escrita;
+
+    public ExecutoresPersistencia(@Value("${minhasfinancas.executores.leitura.threads:4}") int threadsLeitura,
+                                  @Value("${minhasfinancas.executores.leitura.fila:200}") int filaLeitura,
+                                  @Value("${minhasfinancas.executores.busca.threads:3}") int threadsBusca,
+                                  @Value("${minhasfinancas.executores.busca.fila:50}") int filaBusca,
+                                  @Value("${minhasfinancas.executores.escrita.threads:3}") int threadsEscrita,
+                                  @Value("${minhasfinancas.executores.escrita.fila:100}") int filaEscrita) {
+        this.leitura = criar("leitura", threadsLeitura, filaLeitura);
+        this.busca = criar("busca", threadsBusca, filaBusca);
+        this.escrita = criar("escrita", threadsEscrita, filaEscrita);
+    }
+
+    public <T> CompletableFuture<T> leitura(Supplier<T> tarefa) {
+        return CompletableFuture.supplyAsync(tarefa, leitura);
+    }
+
+    public <T> CompletableFuture<T> busca(Supplier<T> tarefa) {
+        return CompletableFuture.supplyAsync(tarefa, busca);
+    }
+
+    public <T> CompletableFuture<T> escrita(Supplier<T> tarefa) {
+        return CompletableFuture.supplyAsync(tarefa, escrita);
+    }
+
+    /**
+     * Executor das respostas assíncronas do Spring MVC (exportação em streaming): a exportação percorre
+     * todos os lançamentos do usuário e disputa recursos com as buscas.
+     */
+    ThreadPoolTaskExecutor getBusca() {
+        return busca;
+    }
+
+    private static ThreadPoolTaskExecutor criar(String nome, int threads, int fila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("persistencia-" + nome + "-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        // a política padrão (AbortPolicy) vira TaskRejectedException no ThreadPoolTaskExecutor
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        monitorar(registry, "leitura", leitura);
+        monitorar(registry, "busca", busca);
+        monitorar(registry, "escrita", escrita);
+    }
+
+    private static void monitorar(MeterRegistry registry, String nome, ThreadPoolTaskExecutor executor) {
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "persistencia." + nome, Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    public void destroy() {
+        leitura.shutdown();
+        busca.shutdown();
+        escrita.shutdown();
+    }
+}
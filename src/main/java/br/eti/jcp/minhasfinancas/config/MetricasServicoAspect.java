@@ -0,0 +1,44 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cronometra cada método público de {@code LancamentoService} e {@code UsuarioService} no timer
+ * "servico.metodo", com as tags servico, metodo e excecao ("none" quando não houve erro).
+ */
+@Aspect
+@Component
+public class MetricasServicoAspect {
+
+    public static final String METRICA = "servico.metodo";
+
+    private final MeterRegistry registry;
+
+    public MetricasServicoAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * br.eti.jcp.minhasfinancas.services.LancamentoService+.*(..)) || " +
+            "execution(public * br.eti.jcp.minhasfinancas.services.UsuarioService+.*(..))")
+    public Object cronometrar(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample amostra = Timer.start(registry);
+        String excecao = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            excecao = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            amostra.stop(Timer.builder(METRICA)
+                    .tag("servico", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("metodo", joinPoint.getSignature().getName())
+                    .tag("excecao", excecao)
+                    .register(registry));
+        }
+    }
+}
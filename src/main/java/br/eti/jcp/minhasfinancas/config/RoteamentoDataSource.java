@@ -0,0 +1,120 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as conexões de transações somente leitura às réplicas, em rodízio, e as demais ao primário. Deve ser
+ * usado atrás de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: o gerenciador
+ * de transações pede a conexão antes de marcar a transação como somente leitura, e o proxy adia o pedido até
+ * o primeiro comando.
+ * <p>
+ * As réplicas podem estar atrasadas em relação ao primário, e cada transação pode ir a uma réplica diferente;
+ * leituras que precedem uma alteração ou que preenchem um cache devem usar uma transação de escrita, e leituras
+ * que precisam concordar entre si devem estar na mesma transação. Uma réplica que falha ao conectar, ou cujo atraso medido pela consulta configurada
+ * passa do máximo, sai do rodízio até a próxima verificação bem-sucedida; sem réplica disponível a leitura
+ * vai ao primário.
+ */
+public class RoteamentoDataSource extends AbstractDataSource implements DisposableBean {
+
+    private final DataSource primario;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String consultaAtraso;
+    private final double atrasoMaximoSegundos;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public RoteamentoDataSource(DataSource primario, List<DataSource> replicas, String consultaAtraso,
+                                double atrasoMaximoSegundos) {
+        this.primario = primario;
+        replicas.forEach(replica -> this.replicas.add(new Replica(replica)));
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximoSegundos = atrasoMaximoSegundos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            for (int tentativa = 0; tentativa < replicas.size(); tentativa++) {
+                Replica replica = replicas.get(Math.floorMod(proxima.getAndIncrement(), replicas.size()));
+                if (!replica.disponivel) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.disponivel = false;
+                }
+            }
+        }
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    /**
+     * Confere cada réplica, inclusive as que saíram do rodízio, e atualiza a disponibilidade.
+     */
+    @Scheduled(fixedDelayString = "${minhasfinancas.datasource.replicas.verificacao-ms:10000}")
+    public void verificarReplicas() {
+        replicas.forEach(replica -> replica.disponivel = verificar(replica.dataSource));
+    }
+
+    private boolean verificar(DataSource replica) {
+        try (Connection conexao = replica.getConnection()) {
+            if (!StringUtils.hasText(consultaAtraso)) {
+                return conexao.isValid(1);
+            }
+            try (Statement comando = conexao.createStatement();
+                 ResultSet atraso = comando.executeQuery(consultaAtraso)) {
+                return atraso.next() && atraso.getDouble(1) <= atrasoMaximoSegundos;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    int getReplicasDisponiveis() {
+        return (int) replicas.stream().filter(replica -> replica.disponivel).count();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (Replica replica : replicas) {
+            fechar(replica.dataSource);
+        }
+        fechar(primario);
+    }
+
+    private static void fechar(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean disponivel = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura, ativadas por {@code minhasfinancas.datasource.replicas.urls}: o primário continua
+ * configurado por {@code spring.datasource.*} e cada réplica usa as mesmas credenciais e propriedades do
+ * Hikari, salvo usuário e senha próprios. Sem réplicas configuradas vale o DataSource padrão do Spring Boot.
+ * <p>
+ * Os pools não são beans, então suas métricas {@code hikaricp.*} (tag {@code pool}: primario, replica-1, ...)
+ * são registradas aqui.
+ */
+@Configuration
+@ConditionalOnProperty("minhasfinancas.datasource.replicas.urls")
+public class RoteamentoDataSourceConfig {
+
+    @Bean
+    public RoteamentoDataSource roteamentoDataSource(
+            DataSourceProperties propriedades, Environment environment, MeterRegistry registry,
+            @Value("${minhasfinancas.datasource.replicas.urls}") List<String> urls,
+            @Value("${minhasfinancas.datasource.replicas.username:${spring.datasource.username:}}") String usuario,
+            @Value("${minhasfinancas.datasource.replicas.password:${spring.datasource.password:}}") String senha,
+            @Value("${minhasfinancas.datasource.replicas.tempo-conexao-ms:1000}") long tempoConexao,
+            @Value("${minhasfinancas.datasource.replicas.consulta-atraso:}") String consultaAtraso,
+            @Value("${minhasfinancas.datasource.replicas.atraso-maximo-segundos:30}") double atrasoMaximo) {
+        HikariDataSource primario = criar(propriedades, environment, registry, "primario");
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = criar(propriedades, environment, registry, "replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(usuario);
+            replica.setPassword(senha);
+            // réplica fora do ar: falha rápido e a leitura segue para o primário, também na inicialização
+            replica.setConnectionTimeout(tempoConexao);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        RoteamentoDataSource roteamento = new RoteamentoDataSource(primario, replicas, consultaAtraso, atrasoMaximo);
+        Gauge.builder("datasource.replicas.disponiveis", roteamento, RoteamentoDataSource::getReplicasDisponiveis)
+                .register(registry);
+        return roteamento;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+        return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+    }
+
+    private static HikariDataSource criar(DataSourceProperties propriedades, Environment environment,
+                                          MeterRegistry registry, String nome) {
+        HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(nome);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return dataSource;
+    }
+}
@@ -0,0 +1,21 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class SegurancaConfig {
+
+    /**
+     * O custo (log2 das iterações) pode ser elevado com o tempo; hashes antigos continuam válidos,
+     * pois o custo usado fica gravado no próprio hash.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${minhasfinancas.seguranca.bcrypt.custo:10}") int custo) {
+        return new BCryptPasswordEncoder(custo);
+    }
+
+}
@@ -0,0 +1,64 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import br.eti.jcp.minhasfinancas.api.security.AdmissaoInterceptor;
+import br.eti.jcp.minhasfinancas.api.security.AutenticacaoInterceptor;
+import br.eti.jcp.minhasfinancas.api.security.ControleAdmissao;
+import br.eti.jcp.minhasfinancas.services.TokenService;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final TokenService tokenService;
+    private final ExecutoresPersistencia executores;
+    private final ControleAdmissao controleAdmissao;
+
+    public WebConfig(TokenService tokenService, ExecutoresPersistencia executores, ControleAdmissao controleAdmissao) {
+        this.tokenService = tokenService;
+        this.executores = executores;
+        this.controleAdmissao = controleAdmissao;
+    }
+
+    /**
+     * Formatos binários negociados pelo {@code Accept} ({@code application/cbor} e
+     * {@code application/x-jackson-smile}), com o mesmo mapeador configurado do JSON: o Spring MVC registraria
+     * os conversores sozinho, mas sem a configuração do Spring Boot (datas ISO, módulos, propriedades
+     * {@code spring.jackson.*}).
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // StreamingResponseBody (exportação) roda no executor das buscas, não no executor genérico do MVC
+        configurer.setTaskExecutor(executores.getBusca());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // cadastro e login são as únicas rotas da API acessíveis sem token
+        registry.addInterceptor(new AutenticacaoInterceptor(tokenService))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/usuarios", "/api/usuarios/autenticar");
+        // limites por usuário, aplicados depois que o token identificou o usuário
+        registry.addInterceptor(new AdmissaoInterceptor(controleAdmissao))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/usuarios", "/api/usuarios/autenticar");
+    }
+}
@@ -0,0 +1,21 @@
+package br.eti.jcp.minhasfinancas.model.batch;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado da inclusão de um lote: os lançamentos gravados e, para cada posição rejeitada
+ * na lista recebida, a mensagem de validação correspondente.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoLote {
+
+    private final List<Lancamento> salvos;
+    private final Map<Integer, String> erros;
+
+}
@@ -0,0 +1,33 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Posição de um consumidor do diário de lançamentos: a do último {@link RegistroDiario} já processado,
+ * gravada na mesma transação que o processamento.
+ */
+@Entity
+@Table(name = "consumidor_diario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumidorDiario {
+
+    @Id
+    @Column(name = "nome", nullable = false)
+    private String nome;
+
+    @Embedded
+    private PosicaoDiario posicao;
+
+}
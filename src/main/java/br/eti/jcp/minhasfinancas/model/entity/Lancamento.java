@@ -15,19 +15,22 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "lancamento", schema = "financas")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @DynamicInsert
@@ -35,7 +38,9 @@ import java.time.LocalDate;
 public class Lancamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+    @SequenceGenerator(name = "lancamento_id_seq", sequenceName = "lancamento_id_seq", schema = "financas",
+            allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -48,7 +53,7 @@ public class Lancamento {
     @Column(name = "ano", nullable = false)
     private Integer ano;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
     private Usuario usuario;
 
@@ -67,4 +72,22 @@ public class Lancamento {
     @Enumerated(value = EnumType.STRING)
     private StatusLancamento status;
 
+    /**
+     * Recorrência que gerou o lançamento e o número da ocorrência, únicos juntos.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_recorrencia")
+    private Recorrencia recorrencia;
+
+    @Column(name = "ocorrencia")
+    private Integer ocorrencia;
+
+    /**
+     * Controle otimista de concorrência: incrementada a cada alteração, inclusive nas mudanças de status
+     * feitas por UPDATE condicional no repositório.
+     */
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
 }
@@ -0,0 +1,35 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+/**
+ * Posição de leitura no diário de lançamentos: a transação que gravou o último {@link RegistroDiario} lido e o
+ * id dele. Os registros são lidos na ordem (transação, id), não só pelo id, que é atribuído na inserção e não
+ * no commit.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PosicaoDiario implements Serializable {
+
+    @Column(name = "transacao", nullable = false)
+    private Long transacao;
+
+    @Column(name = "id_registro", nullable = false)
+    private Long registro;
+
+    public static PosicaoDiario inicio() {
+        return new PosicaoDiario(0L, 0L);
+    }
+
+    public static PosicaoDiario de(RegistroDiario registro) {
+        return new PosicaoDiario(registro.getTransacao(), registro.getId());
+    }
+}
@@ -0,0 +1,94 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Objects;
+
+/**
+ * Lançamento mensal repetido a partir de um mês inicial: em N parcelas, até um mês final ou sem fim.
+ * As ocorrências são materializadas como {@link Lancamento}s, numeradas a partir de 1; {@code geradas}
+ * guarda quantas já foram gravadas, de modo que a próxima geração continua de onde a anterior parou.
+ */
+@Entity
+@Table(name = "recorrencia", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recorrencia {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_usuario", nullable = false)
+    private Usuario usuario;
+
+    @Column(name = "descricao", nullable = false)
+    private String descricao;
+
+    /**
+     * Valor de cada ocorrência (da parcela, nas compras parceladas).
+     */
+    @Column(name = "valor", nullable = false)
+    private BigDecimal valor;
+
+    @Column(name = "tipo", nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "mes_inicial", nullable = false)
+    private Integer mesInicial;
+
+    @Column(name = "ano_inicial", nullable = false)
+    private Integer anoInicial;
+
+    @Column(name = "parcelas")
+    private Integer parcelas;
+
+    @Column(name = "mes_final")
+    private Integer mesFinal;
+
+    @Column(name = "ano_final")
+    private Integer anoFinal;
+
+    @Column(name = "geradas", nullable = false)
+    private Integer geradas;
+
+    @Column(name = "concluida", nullable = false)
+    private Boolean concluida;
+
+    public YearMonth getInicio() {
+        return YearMonth.of(anoInicial, mesInicial);
+    }
+
+    /**
+     * Último mês com ocorrência, ou {@code null} quando a recorrência não tem fim.
+     */
+    public YearMonth getFim() {
+        if (Objects.nonNull(parcelas)) {
+            return getInicio().plusMonths(parcelas - 1L);
+        }
+        return Objects.isNull(anoFinal) ? null : YearMonth.of(anoFinal, mesFinal);
+    }
+
+}
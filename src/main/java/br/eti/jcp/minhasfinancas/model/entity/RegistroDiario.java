@@ -0,0 +1,82 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import br.eti.jcp.minhasfinancas.model.enums.OperacaoDiario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Registro do diário de lançamentos, só inserido e nunca alterado: cada mutação de lançamento grava, na mesma
+ * transação, deltas com sinal da quantidade e do valor no grupo (usuário, ano, mês, tipo e status) afetado.
+ * A inclusão soma no grupo do lançamento, a exclusão subtrai, e alterações e mudanças de status subtraem do
+ * grupo anterior e somam no atual. A soma dos registros de um usuário reproduz seus lançamentos.
+ * <p>
+ * A transação que gravou o registro é preenchida pelo banco; com o id ela forma a posição de leitura dos
+ * consumidores ({@link PosicaoDiario}).
+ */
+@Entity
+@Immutable
+@Table(name = "diario_lancamento", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "id_transacao", nullable = false, insertable = false, updatable = false)
+    private Long transacao;
+
+    @Column(name = "id_usuario", nullable = false)
+    private Long idUsuario;
+
+    @Column(name = "id_lancamento", nullable = false)
+    private Long idLancamento;
+
+    @Column(name = "operacao", nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private OperacaoDiario operacao;
+
+    @Column(name = "ano", nullable = false)
+    private Integer ano;
+
+    @Column(name = "mes", nullable = false)
+    private Integer mes;
+
+    @Column(name = "tipo", nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private StatusLancamento status;
+
+    @Column(name = "quantidade", nullable = false)
+    private Integer quantidade;
+
+    @Column(name = "valor", nullable = false)
+    private BigDecimal valor;
+
+    @Column(name = "data_registro", nullable = false)
+    private LocalDateTime dataRegistro;
+
+}
@@ -0,0 +1,43 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+
+/**
+ * Totais dos lançamentos do usuário agrupados por (ano, mes, tipo, status), mantidos na mesma transação
+ * de cada alteração. A chave primária começa por (id_usuario, ano), de modo que o resumo de um ano
+ * é uma leitura de intervalo do índice.
+ */
+@Entity
+@Table(name = "resumo_mensal", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+
+    @EmbeddedId
+    private ResumoMensalId id;
+
+    @Column(name = "quantidade", nullable = false)
+    private Long quantidade;
+
+    @Column(name = "total", nullable = false)
+    private BigDecimal total;
+
+    public ResumoMensal(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status,
+                        Long quantidade, BigDecimal total) {
+        this(new ResumoMensalId(idUsuario, ano, mes, tipo, status), quantidade, total);
+    }
+
+}
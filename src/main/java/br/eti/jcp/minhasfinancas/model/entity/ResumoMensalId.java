@@ -0,0 +1,42 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalId implements Serializable {
+
+    @Column(name = "id_usuario", nullable = false)
+    private Long idUsuario;
+
+    @Column(name = "ano", nullable = false)
+    private Integer ano;
+
+    @Column(name = "mes", nullable = false)
+    private Integer mes;
+
+    @Column(name = "tipo", nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private StatusLancamento status;
+
+    public static ResumoMensalId de(Lancamento lancamento) {
+        return new ResumoMensalId(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(),
+                lancamento.getTipo(), lancamento.getStatus());
+    }
+}
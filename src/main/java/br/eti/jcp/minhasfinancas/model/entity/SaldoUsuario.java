@@ -0,0 +1,33 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+
+/**
+ * Saldo materializado do usuário (receitas - despesas), mantido na mesma transação de cada
+ * alteração de lançamento para que a consulta de saldo seja uma leitura por chave primária.
+ */
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+    @Id
+    @Column(name = "id_usuario", nullable = false)
+    private Long idUsuario;
+
+    @Column(name = "valor", nullable = false)
+    private BigDecimal valor;
+
+}
@@ -0,0 +1,32 @@
+package br.eti.jcp.minhasfinancas.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Contador de alterações dos lançamentos do usuário, incrementado na mesma transação de cada alteração.
+ * Enquanto não muda, buscas, saldo e resumo do usuário também não mudam: é a base das ETags da API.
+ */
+@Entity
+@Table(name = "versao_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersaoUsuario {
+
+    @Id
+    @Column(name = "id_usuario", nullable = false)
+    private Long idUsuario;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+}
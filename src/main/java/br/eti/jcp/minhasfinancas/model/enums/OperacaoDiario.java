@@ -0,0 +1,11 @@
+package br.eti.jcp.minhasfinancas.model.enums;
+
+/**
+ * Mutação de lançamento que originou um registro do diário.
+ */
+public enum OperacaoDiario {
+    INCLUSAO,
+    ALTERACAO,
+    STATUS,
+    EXCLUSAO
+}
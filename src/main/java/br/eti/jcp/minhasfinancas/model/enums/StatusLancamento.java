@@ -1,7 +1,40 @@
 package br.eti.jcp.minhasfinancas.model.enums;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 public enum StatusLancamento {
     PENDENTE,
     CANCELADO,
-    EFETIVADO
+    EFETIVADO;
+
+    /**
+     * Transições permitidas: um lançamento pendente pode ser efetivado ou cancelado; um efetivado pode ser
+     * estornado para pendente ou cancelado; um cancelado só pode ser reaberto como pendente.
+     */
+    public boolean permiteTransicaoPara(StatusLancamento destino) {
+        return destinos().contains(destino);
+    }
+
+    public Set<StatusLancamento> destinos() {
+        switch (this) {
+            case PENDENTE:
+                return EnumSet.of(EFETIVADO, CANCELADO);
+            case EFETIVADO:
+                return EnumSet.of(PENDENTE, CANCELADO);
+            default:
+                return EnumSet.of(PENDENTE);
+        }
+    }
+
+    /**
+     * Status a partir dos quais é permitido chegar a este.
+     */
+    public Set<StatusLancamento> origens() {
+        return Arrays.stream(values())
+                .filter(origem -> origem.permiteTransicaoPara(this))
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(StatusLancamento.class)));
+    }
 }
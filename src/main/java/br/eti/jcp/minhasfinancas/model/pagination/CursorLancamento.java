@@ -0,0 +1,49 @@
+package br.eti.jcp.minhasfinancas.model.pagination;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Posição de um lançamento na ordenação (ano, mes, id) usada pela paginação por chave.
+ * O token enviado ao cliente é opaco: "ano:mes:id" codificado em Base64 URL-safe.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+
+    public static final CursorLancamento INICIO = new CursorLancamento(Integer.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE);
+
+    private final Integer ano;
+    private final Integer mes;
+    private final Long id;
+
+    public static CursorLancamento apos(LancamentoResumo lancamento) {
+        return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+    }
+
+    public static CursorLancamento decodificar(String token) {
+        if (Objects.isNull(token) || token.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (partes.length != 3) {
+                throw new RegraDeNegocioException("Cursor inválido.");
+            }
+            return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+        } catch (IllegalArgumentException e) {
+            throw new RegraDeNegocioException("Cursor inválido.");
+        }
+    }
+
+    public String codificar() {
+        String valor = ano + ":" + mes + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,20 @@
+package br.eti.jcp.minhasfinancas.model.pagination;
+
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public class PaginaLancamento {
+
+    private final List<LancamentoResumo> lancamentos;
+    private final CursorLancamento proximo;
+
+    public Optional<CursorLancamento> getProximo() {
+        return Optional.ofNullable(proximo);
+    }
+}
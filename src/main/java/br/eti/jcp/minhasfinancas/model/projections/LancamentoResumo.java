@@ -0,0 +1,33 @@
+package br.eti.jcp.minhasfinancas.model.projections;
+
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção de leitura de um lançamento com apenas as colunas exibidas ao cliente e o usuário pelo id.
+ * Instanciada diretamente pelas consultas ("select new ..."), sem entidade gerenciada nem snapshot
+ * para dirty checking.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class LancamentoResumo {
+
+    private final Long id;
+    private final String descricao;
+    private final Integer mes;
+    private final Integer ano;
+    private final BigDecimal valor;
+    private final Long usuario;
+    private final TipoLancamento tipo;
+    private final StatusLancamento status;
+    private final LocalDate dataCadastro;
+    private final Long versao;
+
+}
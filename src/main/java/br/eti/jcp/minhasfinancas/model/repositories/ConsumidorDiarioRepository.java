@@ -0,0 +1,23 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.ConsumidorDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface ConsumidorDiarioRepository extends JpaRepository<ConsumidorDiario, String> {
+
+    /**
+     * Um mesmo consumidor em várias instâncias processa um bloco de cada vez.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value="select c from ConsumidorDiario c where c.nome = :nome")
+    Optional<ConsumidorDiario> bloquear(@Param("nome") String nome);
+
+}
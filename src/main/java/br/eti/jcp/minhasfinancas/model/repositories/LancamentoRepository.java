@@ -1,18 +1,193 @@
 package br.eti.jcp.minhasfinancas.model.repositories;
 
 import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.SaldoUsuario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
 import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
 
-    @Query(value="select sum(l.valor) from Lancamento l join l.usuario u " +
-            "where u.id = :idUsuario and l.tipo = :tipo group by u")
+    @Query(value="select sum(l.valor) from Lancamento l " +
+            "where l.usuario.id = :idUsuario and l.tipo = :tipo")
     BigDecimal obterSaldoPorTipoLancamentoEUsuario(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(value="select new br.eti.jcp.minhasfinancas.model.entity.SaldoUsuario(l.usuario.id, " +
+            "sum(case when l.tipo = :receita then l.valor else -l.valor end)) " +
+            "from Lancamento l group by l.usuario.id")
+    Stream<SaldoUsuario> calcularSaldos(@Param("receita") TipoLancamento receita);
+
+    String RESUMO_MENSAL = "select new br.eti.jcp.minhasfinancas.model.entity.ResumoMensal(" +
+            "l.usuario.id, l.ano, l.mes, l.tipo, l.status, count(l), sum(l.valor)) from Lancamento l ";
+
+    @Query(value=RESUMO_MENSAL + "where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes " +
+            "and l.tipo = :tipo and l.status = :status " +
+            "group by l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+    Optional<ResumoMensal> calcularResumoMensal(@Param("idUsuario") Long idUsuario,
+                                                @Param("ano") Integer ano,
+                                                @Param("mes") Integer mes,
+                                                @Param("tipo") TipoLancamento tipo,
+                                                @Param("status") StatusLancamento status);
+
+    @Query(value=RESUMO_MENSAL + "where l.usuario.id = :idUsuario " +
+            "group by l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+    List<ResumoMensal> calcularResumosMensais(@Param("idUsuario") Long idUsuario);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(value=RESUMO_MENSAL + "group by l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+    Stream<ResumoMensal> calcularTodosResumosMensais();
+
+    String RESUMO = "select new br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo(" +
+            "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.dataCadastro, l.versao) ";
+
+    @Query(value=RESUMO + "from Lancamento l " +
+            "where l.usuario.id = :idUsuario " +
+            "and (:mes is null or l.mes = :mes) " +
+            "and (:ano is null or l.ano = :ano) " +
+            "and lower(l.descricao) like :descricao escape '\\' " +
+            "order by l.ano, l.mes, l.id")
+    List<LancamentoResumo> buscar(@Param("idUsuario") Long idUsuario,
+                            @Param("descricao") String descricao,
+                            @Param("mes") Integer mes,
+                            @Param("ano") Integer ano);
+
+    /**
+     * Paginação por chave (keyset) na ordem (ano, mes, id): retorna os lançamentos posteriores ao cursor,
+     * sem OFFSET, de modo que o custo de cada página independe de quantas já foram lidas.
+     * O {@link Pageable} deve ser sempre a primeira página, servindo apenas como limite.
+     */
+    @Query(value=RESUMO + "from Lancamento l " +
+            "where l.usuario.id = :idUsuario " +
+            "and (:mes is null or l.mes = :mes) " +
+            "and (:ano is null or l.ano = :ano) " +
+            "and lower(l.descricao) like :descricao escape '\\' " +
+            "and (l.ano > :anoCursor or (l.ano = :anoCursor and (l.mes > :mesCursor " +
+            "or (l.mes = :mesCursor and l.id > :idCursor)))) " +
+            "order by l.ano, l.mes, l.id")
+    List<LancamentoResumo> buscarPagina(@Param("idUsuario") Long idUsuario,
+                                  @Param("descricao") String descricao,
+                                  @Param("mes") Integer mes,
+                                  @Param("ano") Integer ano,
+                                  @Param("anoCursor") Integer anoCursor,
+                                  @Param("mesCursor") Integer mesCursor,
+                                  @Param("idCursor") Long idCursor,
+                                  Pageable limite);
+
+    /**
+     * Variantes de {@link #buscar} e {@link #buscarPagina} restritas aos ids já resolvidos por um índice de
+     * descrição mantido fora do banco.
+     */
+    @Query(value=RESUMO + "from Lancamento l " +
+            "where l.usuario.id = :idUsuario " +
+            "and l.id in :ids " +
+            "and (:mes is null or l.mes = :mes) " +
+            "and (:ano is null or l.ano = :ano) " +
+            "and lower(l.descricao) like :descricao escape '\\' " +
+            "order by l.ano, l.mes, l.id")
+    List<LancamentoResumo> buscarPorIds(@Param("idUsuario") Long idUsuario,
+                                  @Param("ids") Collection<Long> ids,
+                                  @Param("descricao") String descricao,
+                                  @Param("mes") Integer mes,
+                                  @Param("ano") Integer ano);
+
+    @Query(value=RESUMO + "from Lancamento l " +
+            "where l.usuario.id = :idUsuario " +
+            "and l.id in :ids " +
+            "and (:mes is null or l.mes = :mes) " +
+            "and (:ano is null or l.ano = :ano) " +
+            "and lower(l.descricao) like :descricao escape '\\' " +
+            "and (l.ano > :anoCursor or (l.ano = :anoCursor and (l.mes > :mesCursor " +
+            "or (l.mes = :mesCursor and l.id > :idCursor)))) " +
+            "order by l.ano, l.mes, l.id")
+    List<LancamentoResumo> buscarPaginaPorIds(@Param("idUsuario") Long idUsuario,
+                                        @Param("ids") Collection<Long> ids,
+                                        @Param("descricao") String descricao,
+                                        @Param("mes") Integer mes,
+                                        @Param("ano") Integer ano,
+                                        @Param("anoCursor") Integer anoCursor,
+                                        @Param("mesCursor") Integer mesCursor,
+                                        @Param("idCursor") Long idCursor,
+                                        Pageable limite);
+
+    @Query(value="select l.id, l.descricao from Lancamento l where l.usuario.id = :idUsuario")
+    List<Object[]> listarDescricoes(@Param("idUsuario") Long idUsuario);
+
+    /**
+     * Leitura em fluxo de todo o histórico do usuário, buscando do banco em blocos de {@code fetch size}.
+     * Deve ser consumida dentro de uma transação e fechada ao final.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(value=RESUMO + "from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id")
+    Stream<LancamentoResumo> exportarPorUsuario(@Param("idUsuario") Long idUsuario);
+
+    /**
+     * Mudança de status em um único UPDATE, aplicado apenas se o lançamento ainda está na versão e no
+     * status lidos; retorna 0 quando outra operação o alterou antes.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value="update Lancamento l set l.status = :novo, l.versao = l.versao + 1 " +
+            "where l.id = :id and l.versao = :versao and l.status = :atual")
+    int atualizarStatus(@Param("id") Long id,
+                        @Param("versao") Long versao,
+                        @Param("atual") StatusLancamento atual,
+                        @Param("novo") StatusLancamento novo);
+
+    /**
+     * Próximo bloco, em ordem de id após o cursor, dos lançamentos do usuário elegíveis para a mudança de
+     * status em massa. As linhas ficam bloqueadas até o fim da transação, para que o resumo mensal seja
+     * ajustado exatamente pelo que o UPDATE seguinte altera.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value=RESUMO + "from Lancamento l " +
+            "where l.usuario.id = :idUsuario " +
+            "and l.status in :origens " +
+            "and (:mes is null or l.mes = :mes) " +
+            "and (:ano is null or l.ano = :ano) " +
+            "and l.id > :idCursor " +
+            "order by l.id")
+    List<LancamentoResumo> bloquearParaMudancaDeStatus(@Param("idUsuario") Long idUsuario,
+                                                       @Param("origens") Collection<StatusLancamento> origens,
+                                                       @Param("mes") Integer mes,
+                                                       @Param("ano") Integer ano,
+                                                       @Param("idCursor") Long idCursor,
+                                                       Pageable limite);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value=RESUMO + "from Lancamento l " +
+            "where l.usuario.id = :idUsuario " +
+            "and l.id in :ids " +
+            "and l.status in :origens " +
+            "and (:mes is null or l.mes = :mes) " +
+            "and (:ano is null or l.ano = :ano) " +
+            "order by l.id")
+    List<LancamentoResumo> bloquearParaMudancaDeStatusPorIds(@Param("idUsuario") Long idUsuario,
+                                                             @Param("ids") Collection<Long> ids,
+                                                             @Param("origens") Collection<StatusLancamento> origens,
+                                                             @Param("mes") Integer mes,
+                                                             @Param("ano") Integer ano);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value="update Lancamento l set l.status = :novo, l.versao = l.versao + 1 where l.id in :ids")
+    int atualizarStatusPorIds(@Param("ids") Collection<Long> ids, @Param("novo") StatusLancamento novo);
 }
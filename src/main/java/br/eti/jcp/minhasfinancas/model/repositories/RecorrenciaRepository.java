@@ -0,0 +1,27 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecorrenciaRepository extends JpaRepository<Recorrencia, Long> {
+
+    @Query(value="select r.id from Recorrencia r where r.concluida = false order by r.id")
+    List<Long> buscarPendentes();
+
+    /**
+     * Bloqueia a recorrência até o fim da transação: duas gerações simultâneas (instâncias diferentes
+     * executando o agendamento) são serializadas, e a segunda já enxerga as ocorrências da primeira.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value="select r from Recorrencia r where r.id = :id")
+    Optional<Recorrencia> bloquear(@Param("id") Long id);
+}
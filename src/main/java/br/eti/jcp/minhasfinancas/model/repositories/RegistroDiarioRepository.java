@@ -0,0 +1,31 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.RegistroDiario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RegistroDiarioRepository extends JpaRepository<RegistroDiario, Long> {
+
+    /**
+     * Registros após a posição, gravados por transações anteriores ao horizonte, na ordem (transação, id).
+     */
+    @Query(value="select r from RegistroDiario r " +
+            "where (r.transacao > :transacao or (r.transacao = :transacao and r.id > :registro)) " +
+            "and r.transacao < :horizonte order by r.transacao, r.id")
+    List<RegistroDiario> buscarApos(@Param("transacao") Long transacao, @Param("registro") Long registro,
+                                    @Param("horizonte") Long horizonte, Pageable pageable);
+
+    @Query(value="select r from RegistroDiario r where r.idUsuario = :idUsuario " +
+            "and (r.transacao > :transacao or (r.transacao = :transacao and r.id > :registro)) " +
+            "and r.transacao < :horizonte order by r.transacao, r.id")
+    List<RegistroDiario> buscarPorUsuarioApos(@Param("idUsuario") Long idUsuario, @Param("transacao") Long transacao,
+                                              @Param("registro") Long registro, @Param("horizonte") Long horizonte,
+                                              Pageable pageable);
+
+}
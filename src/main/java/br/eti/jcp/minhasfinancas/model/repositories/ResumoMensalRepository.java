@@ -0,0 +1,45 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, ResumoMensalId> {
+
+    @Query(value="select r from ResumoMensal r where r.id.idUsuario = :idUsuario and r.id.ano = :ano " +
+            "and r.quantidade > 0 order by r.id.mes, r.id.tipo, r.id.status")
+    List<ResumoMensal> buscarPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+    @Modifying
+    @Query(value="update ResumoMensal r set r.quantidade = r.quantidade + :quantidade, r.total = r.total + :total " +
+            "where r.id.idUsuario = :#{#id.idUsuario} and r.id.ano = :#{#id.ano} and r.id.mes = :#{#id.mes} " +
+            "and r.id.tipo = :#{#id.tipo} and r.id.status = :#{#id.status}")
+    int somar(@Param("id") ResumoMensalId id, @Param("quantidade") Long quantidade, @Param("total") BigDecimal total);
+
+    /**
+     * Cria o resumo do grupo se ainda não existe; retorna 0 quando outra transação já o criou, e nesse caso
+     * espera o commit dela em vez de falhar na chave primária.
+     */
+    @Modifying
+    @Query(value="insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, quantidade, total) " +
+            "values (:#{#resumo.id.idUsuario}, :#{#resumo.id.ano}, :#{#resumo.id.mes}, :#{#resumo.id.tipo.name()}, " +
+            ":#{#resumo.id.status.name()}, :#{#resumo.quantidade}, :#{#resumo.total}) on conflict do nothing",
+            nativeQuery = true)
+    int criar(@Param("resumo") ResumoMensal resumo);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value="delete from ResumoMensal r where r.id.idUsuario = :idUsuario")
+    int excluirPorUsuario(@Param("idUsuario") Long idUsuario);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value="delete from ResumoMensal r")
+    int excluirTodos();
+}
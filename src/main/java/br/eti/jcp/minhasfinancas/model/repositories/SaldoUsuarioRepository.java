@@ -0,0 +1,32 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.SaldoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+
+    @Modifying
+    @Query(value="update SaldoUsuario s set s.valor = s.valor + :delta where s.idUsuario = :idUsuario")
+    int somar(@Param("idUsuario") Long idUsuario, @Param("delta") BigDecimal delta);
+
+    /**
+     * Cria o saldo se ainda não existe; retorna 0 quando outra transação já o criou, e nesse caso espera o
+     * commit dela em vez de falhar na chave primária.
+     */
+    @Modifying
+    @Query(value="insert into financas.saldo_usuario (id_usuario, valor) values (:idUsuario, :valor) " +
+            "on conflict do nothing", nativeQuery = true)
+    int criar(@Param("idUsuario") Long idUsuario, @Param("valor") BigDecimal valor);
+
+    @Modifying
+    @Query(value="update SaldoUsuario s set s.valor = 0 " +
+            "where s.idUsuario not in (select distinct l.usuario.id from Lancamento l)")
+    int zerarSemLancamentos();
+}
@@ -0,0 +1,30 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.VersaoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VersaoUsuarioRepository extends JpaRepository<VersaoUsuario, Long> {
+
+    @Modifying
+    @Query(value="update VersaoUsuario v set v.versao = v.versao + 1 where v.idUsuario = :idUsuario")
+    int incrementar(@Param("idUsuario") Long idUsuario);
+
+    /**
+     * Cria a versão 1 do usuário se ainda não existe; retorna 0 quando outra transação já a criou, e nesse
+     * caso espera o commit dela em vez de falhar na chave primária.
+     */
+    @Modifying
+    @Query(value="insert into financas.versao_usuario (id_usuario, versao) values (:idUsuario, 1) " +
+            "on conflict do nothing", nativeQuery = true)
+    int criar(@Param("idUsuario") Long idUsuario);
+
+    @Modifying
+    @Query(value="update VersaoUsuario v set v.versao = v.versao + 1")
+    int incrementarTodos();
+
+}
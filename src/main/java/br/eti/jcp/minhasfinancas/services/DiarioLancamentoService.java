@@ -0,0 +1,32 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.PosicaoDiario;
+import br.eti.jcp.minhasfinancas.model.entity.RegistroDiario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface DiarioLancamentoService {
+
+    void registrarInclusao(Lancamento lancamento);
+
+    void registrarInclusoes(List<Lancamento> lancamentos);
+
+    void registrarExclusao(Lancamento lancamento);
+
+    void registrarAlteracao(Lancamento anterior, Lancamento atual);
+
+    void registrarMudancaDeStatus(Lancamento anterior, StatusLancamento status);
+
+    void registrarMudancasDeStatus(List<LancamentoResumo> anteriores, StatusLancamento status);
+
+    int processar(String consumidor, int limite, Consumer<List<RegistroDiario>> tratamento);
+
+    PosicaoDiario obterPosicao(String consumidor);
+
+    List<RegistroDiario> buscarPorUsuario(Long idUsuario, PosicaoDiario posicao, int limite);
+
+}
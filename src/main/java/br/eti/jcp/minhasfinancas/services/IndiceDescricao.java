@@ -0,0 +1,22 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Busca de lançamentos por trecho da descrição.
+ * Quando o banco possui índice próprio para {@code lower(descricao) like '%termo%'} (pg_trgm no PostgreSQL)
+ * a busca é delegada à consulta e {@link #buscar} retorna vazio; caso contrário um índice local
+ * resolve os ids candidatos.
+ */
+public interface IndiceDescricao {
+
+    Optional<Set<Long>> buscar(Long idUsuario, String termo);
+
+    void registrar(Lancamento lancamento);
+
+    void remover(Lancamento lancamento);
+
+}
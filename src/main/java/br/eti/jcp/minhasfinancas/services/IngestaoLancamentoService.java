@@ -0,0 +1,11 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IngestaoLancamentoService {
+
+    CompletableFuture<Lancamento> enfileirar(Lancamento lancamento);
+
+}
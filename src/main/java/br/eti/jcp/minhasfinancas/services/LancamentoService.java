@@ -1,24 +1,39 @@
 package br.eti.jcp.minhasfinancas.services;
 
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
 import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.CursorLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.PaginaLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LancamentoService {
 
     Lancamento salvar(Lancamento lancamento);
 
+    ResultadoLote salvarEmLote(Usuario usuario, List<Lancamento> lancamentos);
+
     Lancamento atualizar(Lancamento lancamento);
 
     void excluir(Lancamento lancamento);
 
-    List<Lancamento> buscar(Lancamento lancamentoFiltro);
+    List<LancamentoResumo> buscar(Lancamento lancamentoFiltro);
+
+    PaginaLancamento buscarPagina(Lancamento lancamentoFiltro, CursorLancamento cursor, Integer tamanho);
+
+    void exportar(Long idUsuario, Consumer<LancamentoResumo> consumidor);
 
     void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 
+    int atualizarStatusEmLote(Lancamento lancamentoFiltro, Collection<Long> ids, StatusLancamento status);
+
     void validar(Lancamento lancamento);
 
     Optional<Lancamento> carregarPorId(Long id);
@@ -0,0 +1,13 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
+
+public interface RecorrenciaService {
+
+    Recorrencia salvar(Recorrencia recorrencia);
+
+    int gerarPendentes();
+
+    void validar(Recorrencia recorrencia);
+
+}
@@ -0,0 +1,28 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ResumoMensalService {
+
+    void registrarInclusao(Lancamento lancamento);
+
+    void registrarInclusoes(List<Lancamento> lancamentos);
+
+    void registrarExclusao(Lancamento lancamento);
+
+    void registrarAlteracao(Lancamento anterior, Lancamento atual);
+
+    void registrarMudancasDeStatus(Collection<ResumoMensal> anteriores, StatusLancamento status);
+
+    List<ResumoMensal> buscar(Long idUsuario, Integer ano);
+
+    void reconstruir(Long idUsuario);
+
+    void reconstruirTodos();
+
+}
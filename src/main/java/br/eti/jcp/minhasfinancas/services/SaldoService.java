@@ -0,0 +1,24 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface SaldoService {
+
+    void registrarInclusao(Lancamento lancamento);
+
+    void registrarInclusoes(List<Lancamento> lancamentos);
+
+    void registrarExclusao(Lancamento lancamento);
+
+    void registrarAlteracao(Lancamento anterior, Lancamento atual);
+
+    BigDecimal obterSaldo(Long idUsuario);
+
+    BigDecimal reconstruir(Long idUsuario);
+
+    void reconstruirTodos();
+
+}
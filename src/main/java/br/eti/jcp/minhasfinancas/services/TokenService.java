@@ -0,0 +1,14 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+
+public interface TokenService {
+
+    String gerar(Usuario usuario);
+
+    /**
+     * Confere assinatura e validade do token e retorna o id do usuário, sem consultar o banco.
+     */
+    Long validar(String token);
+
+}
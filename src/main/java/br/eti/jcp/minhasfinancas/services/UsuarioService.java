@@ -14,4 +14,8 @@ public interface UsuarioService {
 
     Optional<Usuario> carregarPorId(Long id);
 
+    boolean existePorId(Long id);
+
+    Usuario obterReferencia(Long id);
+
 }
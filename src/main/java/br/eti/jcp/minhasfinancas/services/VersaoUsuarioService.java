@@ -0,0 +1,11 @@
+package br.eti.jcp.minhasfinancas.services;
+
+public interface VersaoUsuarioService {
+
+    void registrarAlteracao(Long idUsuario);
+
+    void registrarAlteracaoDeTodos();
+
+    long obterVersao(Long idUsuario);
+
+}
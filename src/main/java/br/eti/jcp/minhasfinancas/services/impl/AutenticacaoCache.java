@@ -0,0 +1,94 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache local e limitado dos logins verificados recentemente, para que rajadas de autenticação do mesmo
+ * usuário não paguem o custo do BCrypt a cada requisição. A senha não é guardada: apenas um HMAC dela
+ * com uma chave aleatória que existe somente na memória deste processo.
+ */
+@Component
+public class AutenticacaoCache implements MeterBinder {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final Cache<String, Credencial> cache;
+    private final SecretKey chave;
+
+    public AutenticacaoCache(@Value("${minhasfinancas.seguranca.login.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                             @Value("${minhasfinancas.seguranca.login.cache.expiracao-segundos:300}") long expiracaoSegundos) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracaoSegundos, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        try {
+            this.chave = KeyGenerator.getInstance(ALGORITMO).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<Usuario> obter(String email, String senha) {
+        Credencial credencial = cache.getIfPresent(email);
+        if (credencial == null || !MessageDigest.isEqual(credencial.resumo, resumir(senha))) {
+            return Optional.empty();
+        }
+        return Optional.of(credencial.usuario);
+    }
+
+    public void registrar(Usuario usuario, String senha) {
+        Usuario semSenha = Usuario.builder().id(usuario.getId()).nome(usuario.getNome()).email(usuario.getEmail()).build();
+        cache.put(usuario.getEmail(), new Credencial(semSenha, resumir(senha)));
+    }
+
+    public void invalidar(String email) {
+        cache.invalidate(email);
+    }
+
+    public void invalidarTodos() {
+        cache.invalidateAll();
+    }
+
+    private byte[] resumir(String senha) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac.doFinal(senha.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "login");
+    }
+
+    private static class Credencial {
+
+        private final Usuario usuario;
+        private final byte[] resumo;
+
+        private Credencial(Usuario usuario, byte[] resumo) {
+            this.usuario = usuario;
+            this.resumo = resumo;
+        }
+    }
+}
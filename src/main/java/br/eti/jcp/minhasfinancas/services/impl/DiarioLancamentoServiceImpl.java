@@ -0,0 +1,196 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.ConsumidorDiario;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.PosicaoDiario;
+import br.eti.jcp.minhasfinancas.model.entity.RegistroDiario;
+import br.eti.jcp.minhasfinancas.model.enums.OperacaoDiario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import br.eti.jcp.minhasfinancas.model.repositories.ConsumidorDiarioRepository;
+import br.eti.jcp.minhasfinancas.model.repositories.RegistroDiarioRepository;
+import br.eti.jcp.minhasfinancas.services.DiarioLancamentoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Grava o diário de lançamentos ({@link RegistroDiario}) e entrega seus registros aos consumidores a partir
+ * da posição de cada um.
+ * <p>
+ * Os registros são inseridos por JDBC em um único batch por chamada: a chave gerada pelo banco não impede o
+ * batch, como impediria no {@code persist} com {@code IDENTITY}.
+ * <p>
+ * Como os ids são atribuídos na inserção e não no commit, uma transação mais lenta pode confirmar um id menor
+ * depois de um consumidor já ter passado por ele. Por isso cada registro guarda a transação que o gravou, e a
+ * leitura segue a ordem (transação, id) e só entrega registros de transações anteriores ao horizonte: a menor
+ * transação ainda em andamento no banco, obtida pela consulta configurada. Toda transação abaixo dele já
+ * terminou, e as que ainda vão gravar recebem ids de transação acima dele, de modo que nenhum registro aparece
+ * atrás de uma posição já lida.
+ */
+@Service
+public class DiarioLancamentoServiceImpl implements DiarioLancamentoService {
+
+    private static final String INSERIR = "insert into financas.diario_lancamento "
+            + "(id_usuario, id_lancamento, operacao, ano, mes, tipo, status, quantidade, valor, data_registro) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private RegistroDiarioRepository repository;
+
+    private ConsumidorDiarioRepository consumidorRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transacao;
+
+    private String consultaHorizonte;
+
+    public DiarioLancamentoServiceImpl(RegistroDiarioRepository repository, ConsumidorDiarioRepository consumidorRepository,
+                                       JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                       @Value("${minhasfinancas.diario.consulta-horizonte}") String consultaHorizonte) {
+        this.repository = repository;
+        this.consumidorRepository = consumidorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.consultaHorizonte = consultaHorizonte;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarInclusao(Lancamento lancamento) {
+        registrarInclusoes(Collections.singletonList(lancamento));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarInclusoes(List<Lancamento> lancamentos) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(lancamentos.size());
+        lancamentos.forEach(lancamento -> linhas.add(linha(lancamento, OperacaoDiario.INCLUSAO, 1, agora)));
+        jdbcTemplate.batchUpdate(INSERIR, linhas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarExclusao(Lancamento lancamento) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERIR, Collections.singletonList(linha(lancamento, OperacaoDiario.EXCLUSAO, -1, agora)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracao(Lancamento anterior, Lancamento atual) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(2);
+        // o par é gravado mesmo quando os grupos coincidem: o diário registra toda alteração, ainda que só a descrição mude
+        linhas.add(linha(anterior, OperacaoDiario.ALTERACAO, -1, agora));
+        linhas.add(linha(atual, OperacaoDiario.ALTERACAO, 1, agora));
+        jdbcTemplate.batchUpdate(INSERIR, linhas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMudancaDeStatus(Lancamento anterior, StatusLancamento status) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(2);
+        linhas.add(linha(anterior, OperacaoDiario.STATUS, -1, agora));
+        linhas.add(linha(anterior.getUsuario().getId(), anterior.getId(), OperacaoDiario.STATUS, anterior.getAno(),
+                anterior.getMes(), anterior.getTipo(), status, 1, anterior.getValor(), agora));
+        jdbcTemplate.batchUpdate(INSERIR, linhas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMudancasDeStatus(List<LancamentoResumo> anteriores, StatusLancamento status) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(anteriores.size() * 2);
+        anteriores.forEach(anterior -> {
+            linhas.add(linha(anterior.getUsuario(), anterior.getId(), OperacaoDiario.STATUS, anterior.getAno(),
+                    anterior.getMes(), anterior.getTipo(), anterior.getStatus(), -1, anterior.getValor(), agora));
+            linhas.add(linha(anterior.getUsuario(), anterior.getId(), OperacaoDiario.STATUS, anterior.getAno(),
+                    anterior.getMes(), anterior.getTipo(), status, 1, anterior.getValor(), agora));
+        });
+        jdbcTemplate.batchUpdate(INSERIR, linhas);
+    }
+
+    /**
+     * Entrega ao tratamento o próximo bloco de registros após a posição do consumidor e avança a posição, na
+     * mesma transação: um tratamento que grava no banco é aplicado uma única vez, e uma falha devolve o bloco
+     * para a próxima chamada. Retorna a quantidade entregue; zero quando o consumidor está em dia.
+     */
+    @Override
+    public int processar(String consumidor, int limite, Consumer<List<RegistroDiario>> tratamento) {
+        criarConsumidor(consumidor);
+        return transacao.execute(status -> {
+            ConsumidorDiario posicao = consumidorRepository.bloquear(consumidor).orElseThrow(IllegalStateException::new);
+            List<RegistroDiario> registros = repository.buscarApos(posicao.getPosicao().getTransacao(),
+                    posicao.getPosicao().getRegistro(), horizonte(), PageRequest.of(0, limite));
+            if (!registros.isEmpty()) {
+                tratamento.accept(registros);
+                posicao.setPosicao(PosicaoDiario.de(registros.get(registros.size() - 1)));
+            }
+            return registros.size();
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PosicaoDiario obterPosicao(String consumidor) {
+        return consumidorRepository.findById(consumidor).map(ConsumidorDiario::getPosicao)
+                .orElseGet(PosicaoDiario::inicio);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RegistroDiario> buscarPorUsuario(Long idUsuario, PosicaoDiario posicao, int limite) {
+        return repository.buscarPorUsuarioApos(idUsuario, posicao.getTransacao(), posicao.getRegistro(), horizonte(),
+                PageRequest.of(0, limite));
+    }
+
+    /**
+     * O primeiro uso de um consumidor o cria em uma transação própria, antes do bloqueio: duas instâncias que o
+     * criem ao mesmo tempo esbarram na chave primária, e a que perde segue com a linha gravada pela outra.
+     */
+    private void criarConsumidor(String consumidor) {
+        if (consumidorRepository.existsById(consumidor)) {
+            return;
+        }
+        try {
+            transacao.execute(status -> consumidorRepository.saveAndFlush(
+                    new ConsumidorDiario(consumidor, PosicaoDiario.inicio())));
+        } catch (DataIntegrityViolationException e) {
+            // criado por outra instância
+        }
+    }
+
+    private long horizonte() {
+        return jdbcTemplate.queryForObject(consultaHorizonte, Long.class);
+    }
+
+    private static Object[] linha(Lancamento lancamento, OperacaoDiario operacao, int sinal, Timestamp agora) {
+        return linha(lancamento.getUsuario().getId(), lancamento.getId(), operacao, lancamento.getAno(),
+                lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus(), sinal, lancamento.getValor(), agora);
+    }
+
+    private static Object[] linha(Long idUsuario, Long idLancamento, OperacaoDiario operacao, Integer ano, Integer mes,
+                                  TipoLancamento tipo, StatusLancamento status, int sinal, BigDecimal valor,
+                                  Timestamp agora) {
+        return new Object[]{idUsuario, idLancamento, operacao.name(), ano, mes, tipo.name(), status.name(), sinal,
+                sinal < 0 ? valor.negate() : valor, agora};
+    }
+}
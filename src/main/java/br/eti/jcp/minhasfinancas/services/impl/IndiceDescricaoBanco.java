@@ -0,0 +1,31 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.services.IndiceDescricao;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A busca fica inteiramente a cargo do banco, que mantém o índice de trigramas
+ * (ver db/migration/postgresql).
+ */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.busca.descricao.indice", havingValue = "banco", matchIfMissing = true)
+public class IndiceDescricaoBanco implements IndiceDescricao {
+
+    @Override
+    public Optional<Set<Long>> buscar(Long idUsuario, String termo) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void registrar(Lancamento lancamento) {
+    }
+
+    @Override
+    public void remover(Lancamento lancamento) {
+    }
+}
@@ -0,0 +1,179 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.services.IndiceDescricao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Índice invertido de trigramas mantido em memória, por usuário, para bancos sem suporte a índice
+ * de substring (H2). O índice de um usuário é montado na primeira busca e atualizado após o commit
+ * de cada alteração; a consulta final ainda confere a descrição no banco.
+ * <p>
+ * Os índices ficam em um cache limitado (tamanho e tempo sem uso), com métricas "cache.*" e
+ * cache=indice-descricao. A atualização após o commit passa pelo mesmo bloqueio da carga: se a carga do
+ * usuário estiver em andamento, a atualização espera por ela e é aplicada sobre o índice carregado, mesmo
+ * que a leitura da carga tenha sido anterior ao commit.
+ */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.busca.descricao.indice", havingValue = "memoria")
+public class IndiceDescricaoMemoria implements IndiceDescricao, MeterBinder {
+
+    private final LancamentoRepository repository;
+
+    private final Cache<Long, IndiceUsuario> indices;
+
+    public IndiceDescricaoMemoria(LancamentoRepository repository,
+                                  @Value("${minhasfinancas.busca.descricao.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                                  @Value("${minhasfinancas.busca.descricao.cache.expiracao-segundos:3600}") long expiracaoSegundos) {
+        this.repository = repository;
+        this.indices = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracaoSegundos, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<Set<Long>> buscar(Long idUsuario, String termo) {
+        IndiceUsuario indice = indices.get(idUsuario, this::carregar);
+        return Optional.of(indice.buscar(termo.toLowerCase()));
+    }
+
+    @Override
+    public void registrar(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario().getId();
+        Long id = lancamento.getId();
+        String descricao = lancamento.getDescricao();
+        aposCommit(() -> atualizar(idUsuario, indice -> indice.registrar(id, descricao.toLowerCase())));
+    }
+
+    @Override
+    public void remover(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario().getId();
+        Long id = lancamento.getId();
+        aposCommit(() -> atualizar(idUsuario, indice -> indice.remover(id)));
+    }
+
+    /**
+     * Só altera índices já carregados. O compute aguarda a carga em andamento do mesmo usuário; o
+     * computeIfPresent do Caffeine não serve, porque retorna sem esperar enquanto a carga não termina.
+     */
+    private void atualizar(Long idUsuario, Consumer<IndiceUsuario> alteracao) {
+        indices.asMap().compute(idUsuario, (id, indice) -> {
+            if (indice != null) {
+                alteracao.accept(indice);
+            }
+            return indice;
+        });
+    }
+
+    private IndiceUsuario carregar(Long idUsuario) {
+        IndiceUsuario indice = new IndiceUsuario();
+        repository.listarDescricoes(idUsuario)
+                .forEach(linha -> indice.registrar((Long) linha[0], ((String) linha[1]).toLowerCase()));
+        return indice;
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, indices, "indice-descricao");
+    }
+
+    static Set<String> trigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.add(texto.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    static class IndiceUsuario {
+
+        private final Map<Long, String> descricoes = new HashMap<>();
+        private final Map<String, Set<Long>> ids = new HashMap<>();
+
+        synchronized void registrar(Long id, String descricao) {
+            remover(id);
+            descricoes.put(id, descricao);
+            trigramas(descricao).forEach(trigrama -> ids.computeIfAbsent(trigrama, t -> new HashSet<>()).add(id));
+        }
+
+        synchronized void remover(Long id) {
+            String descricao = descricoes.remove(id);
+            if (descricao == null) {
+                return;
+            }
+            trigramas(descricao).forEach(trigrama -> {
+                Set<Long> lista = ids.get(trigrama);
+                lista.remove(id);
+                if (lista.isEmpty()) {
+                    ids.remove(trigrama);
+                }
+            });
+        }
+
+        synchronized Set<Long> buscar(String termo) {
+            if (termo.length() < 3) {
+                Set<Long> encontrados = new HashSet<>();
+                descricoes.forEach((id, descricao) -> {
+                    if (descricao.contains(termo)) {
+                        encontrados.add(id);
+                    }
+                });
+                return encontrados;
+            }
+            // interseção das listas de ids, começando pelo trigrama mais seletivo
+            Set<Long> candidatos = null;
+            for (String trigrama : trigramas(termo)) {
+                Set<Long> lista = ids.getOrDefault(trigrama, Collections.emptySet());
+                if (candidatos == null || lista.size() < candidatos.size()) {
+                    Set<Long> menor = lista;
+                    Set<Long> maior = candidatos;
+                    candidatos = new HashSet<>(menor);
+                    if (maior != null) {
+                        candidatos.retainAll(maior);
+                    }
+                } else {
+                    candidatos.retainAll(lista);
+                }
+                if (candidatos.isEmpty()) {
+                    return candidatos;
+                }
+            }
+            candidatos.removeIf(id -> !descricoes.get(id).contains(termo));
+            return candidatos;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.services.IngestaoLancamentoService;
+import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Inclusão com gravação adiada (opcional, {@code minhasfinancas.ingestao.habilitada}): o lançamento é
+ * validado na chamada e entra em uma fila limitada; uma thread de gravação junta os pendentes em lotes,
+ * fechados ao atingir o tamanho ou o tempo máximo de espera, e grava cada lote em uma única transação,
+ * com os lançamentos de cada usuário em {@link LancamentoService#salvarEmLote}. Várias inclusões passam a
+ * custar um commit, em vez de um cada.
+ * <p>
+ * Com a fila cheia a inclusão é recusada na hora com {@link TaskRejectedException} (503 na API). O futuro
+ * devolvido só é concluído depois do commit; quem não espera por ele aceita perder o lançamento se a
+ * aplicação cair antes da gravação. Se o lote falhar, seus lançamentos são regravados um a um, para que um
+ * lançamento com erro não derrube os demais.
+ * <p>
+ * A thread de gravação acompanha o ciclo de vida do contexto: parte antes do servidor web e para depois
+ * dele. Ao parar, as inclusões passam a ser recusadas e o que já foi aceito é gravado, até o tempo de
+ * encerramento; os futuros que ainda restarem são concluídos com erro, para que ninguém espere por uma
+ * gravação que não virá.
+ */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.ingestao.habilitada", havingValue = "true")
+public class IngestaoLancamentoServiceImpl implements IngestaoLancamentoService, MeterBinder, SmartLifecycle {
+
+    private final LancamentoService lancamentoService;
+    private final TransactionTemplate transacao;
+    private final BlockingQueue<Pendente> fila;
+    private final int tamanhoLote;
+    private final long esperaNanos;
+    private final long encerramentoMillis;
+    private Thread gravacao;
+    private volatile boolean ativa;
+    private volatile List<Pendente> emGravacao = Collections.emptyList();
+    private Counter lotes;
+
+    public IngestaoLancamentoServiceImpl(LancamentoService lancamentoService, PlatformTransactionManager transactionManager,
+                                         @Value("${minhasfinancas.ingestao.fila:10000}") int capacidadeFila,
+                                         @Value("${minhasfinancas.ingestao.lote:500}") int tamanhoLote,
+                                         @Value("${minhasfinancas.ingestao.espera-ms:20}") long esperaMillis,
+                                         @Value("${minhasfinancas.ingestao.encerramento-ms:30000}") long encerramentoMillis) {
+        this.lancamentoService = lancamentoService;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.tamanhoLote = tamanhoLote;
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMillis);
+        this.encerramentoMillis = encerramentoMillis;
+    }
+
+    @Override
+    public CompletableFuture<Lancamento> enfileirar(Lancamento lancamento) {
+        lancamentoService.validar(lancamento);
+        Pendente pendente = new Pendente(lancamento);
+        // o teste e a inserção são atômicos em relação ao stop: nada entra na fila depois da última drenagem
+        synchronized (this) {
+            if (!ativa) {
+                throw new TaskRejectedException("Ingestão de lançamentos encerrada");
+            }
+            if (!fila.offer(pendente)) {
+                throw new TaskRejectedException("Fila de ingestão de lançamentos cheia");
+            }
+        }
+        return pendente.confirmacao;
+    }
+
+    @Override
+    public synchronized void start() {
+        ativa = true;
+        gravacao = new Thread(this::gravar, "ingestao-lancamentos");
+        // o stop espera a gravação só até o tempo de encerramento; depois disso ela não segura a JVM
+        gravacao.setDaemon(true);
+        gravacao.start();
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            ativa = false;
+        }
+        try {
+            gravacao.join(encerramentoMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // gravação presa além do prazo: o lote em andamento fica sem confirmação e o restante da fila não é gravado
+        emGravacao.forEach(pendente -> pendente.confirmacao.completeExceptionally(
+                new IllegalStateException("Gravação não confirmada antes do encerramento")));
+        List<Pendente> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        restantes.forEach(pendente -> pendente.confirmacao.completeExceptionally(
+                new TaskRejectedException("Ingestão de lançamentos encerrada antes da gravação")));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ativa;
+    }
+
+    /**
+     * Parte antes do servidor web e para depois dele, que deixa de aceitar requisições primeiro.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    private void gravar() {
+        while (ativa) {
+            try {
+                Pendente primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro != null) {
+                    gravarLote(completarLote(primeiro));
+                }
+            } catch (InterruptedException e) {
+                ativa = false;
+            }
+        }
+        // encerramento: grava o que já foi aceito
+        List<Pendente> restantes = new ArrayList<>(tamanhoLote);
+        while (fila.drainTo(restantes, tamanhoLote) > 0) {
+            gravarLote(restantes);
+            restantes = new ArrayList<>(tamanhoLote);
+        }
+    }
+
+    /**
+     * Junta ao primeiro pendente os que chegarem até o lote encher ou o tempo de espera acabar.
+     */
+    private List<Pendente> completarLote(Pendente primeiro) {
+        List<Pendente> lote = new ArrayList<>(tamanhoLote);
+        lote.add(primeiro);
+        long prazo = System.nanoTime() + esperaNanos;
+        try {
+            while (lote.size() < tamanhoLote) {
+                fila.drainTo(lote, tamanhoLote - lote.size());
+                long restante = prazo - System.nanoTime();
+                if (lote.size() >= tamanhoLote || restante <= 0 || !ativa) {
+                    break;
+                }
+                // espera em fatias, para que o encerramento não aguarde o prazo inteiro
+                Pendente proximo = fila.poll(Math.min(restante, TimeUnit.MILLISECONDS.toNanos(100)), TimeUnit.NANOSECONDS);
+                if (proximo != null) {
+                    lote.add(proximo);
+                }
+            }
+        } catch (InterruptedException e) {
+            ativa = false;
+        }
+        return lote;
+    }
+
+    private void gravarLote(List<Pendente> lote) {
+        emGravacao = lote;
+        try {
+            gravar(lote);
+        } finally {
+            emGravacao = Collections.emptyList();
+        }
+    }
+
+    private void gravar(List<Pendente> lote) {
+        try {
+            Map<Pendente, RuntimeException> erros = transacao.execute(status -> salvar(lote));
+            if (lotes != null) {
+                lotes.increment();
+            }
+            lote.forEach(pendente -> concluir(pendente, erros.get(pendente)));
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                lote.get(0).confirmacao.completeExceptionally(e);
+                return;
+            }
+            lote.forEach(pendente -> {
+                pendente.descartarGravacao();
+                gravar(Collections.singletonList(pendente));
+            });
+        }
+    }
+
+    private Map<Pendente, RuntimeException> salvar(List<Pendente> lote) {
+        Map<Pendente, RuntimeException> erros = new LinkedHashMap<>();
+        Map<Long, List<Pendente>> porUsuario = lote.stream()
+                .collect(Collectors.groupingBy(pendente -> pendente.lancamento.getUsuario().getId(),
+                        LinkedHashMap::new, Collectors.toList()));
+        porUsuario.values().forEach(pendentes -> {
+            Usuario usuario = pendentes.get(0).lancamento.getUsuario();
+            ResultadoLote resultado = lancamentoService.salvarEmLote(usuario,
+                    pendentes.stream().map(pendente -> pendente.lancamento).collect(Collectors.toList()));
+            resultado.getErros().forEach((indice, mensagem) ->
+                    erros.put(pendentes.get(indice), new RegraDeNegocioException(mensagem)));
+            // os gravados vêm na ordem dos pendentes, sem os rejeitados
+            Iterator<Lancamento> salvos = resultado.getSalvos().iterator();
+            for (int i = 0; i < pendentes.size(); i++) {
+                if (!resultado.getErros().containsKey(i)) {
+                    pendentes.get(i).salvo = salvos.next();
+                }
+            }
+        });
+        return erros;
+    }
+
+    private static void concluir(Pendente pendente, RuntimeException erro) {
+        if (erro == null) {
+            pendente.confirmacao.complete(pendente.salvo);
+        } else {
+            pendente.confirmacao.completeExceptionally(erro);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ingestao.fila", fila, BlockingQueue::size)
+                .description("Lançamentos aguardando gravação")
+                .register(registry);
+        lotes = Counter.builder("ingestao.lotes")
+                .description("Lotes gravados, um commit cada")
+                .register(registry);
+    }
+
+    private static final class Pendente {
+
+        private Lancamento lancamento;
+        private Lancamento salvo;
+        private final CompletableFuture<Lancamento> confirmacao = new CompletableFuture<>();
+
+        private Pendente(Lancamento lancamento) {
+            this.lancamento = lancamento;
+        }
+
+        /**
+         * Depois do rollback o lançamento ainda tem o id e a versão que o flush desfeito lhe deu; sem eles a
+         * nova tentativa volta a ser uma inclusão, em vez de um merge que grava uma cópia com outro id.
+         */
+        private void descartarGravacao() {
+            lancamento = lancamento.toBuilder().id(null).versao(null).build();
+            salvo = null;
+        }
+    }
+}
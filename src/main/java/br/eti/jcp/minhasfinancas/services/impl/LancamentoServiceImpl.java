@@ -1,38 +1,139 @@
 package br.eti.jcp.minhasfinancas.services.impl;
 
 import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
 import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensalId;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
-import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.CursorLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.PaginaLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
 import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.services.DiarioLancamentoService;
+import br.eti.jcp.minhasfinancas.services.IndiceDescricao;
 import br.eti.jcp.minhasfinancas.services.LancamentoService;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import br.eti.jcp.minhasfinancas.services.ResumoMensalService;
+import br.eti.jcp.minhasfinancas.services.SaldoService;
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 
-    public LancamentoServiceImpl(LancamentoRepository repository) {
+    public static final int TAMANHO_PAGINA_PADRAO = 50;
+    public static final int TAMANHO_PAGINA_MAXIMO = 500;
+    public static final int TAMANHO_LOTE_MAXIMO = 10000;
+    // deve acompanhar spring.jpa.properties.hibernate.jdbc.batch_size
+    private static final int TAMANHO_BLOCO_INSERCAO = 50;
+    private static final int TAMANHO_BLOCO_STATUS = 1000;
+    private static final int TAMANHO_BLOCO_IDS = 1000;
+    // ordem das consultas de busca, usada para intercalar os resultados dos blocos de ids
+    private static final Comparator<LancamentoResumo> ORDEM_BUSCA = Comparator.comparing(LancamentoResumo::getAno)
+            .thenComparing(LancamentoResumo::getMes).thenComparing(LancamentoResumo::getId);
+
+    public LancamentoServiceImpl(LancamentoRepository repository, EntityManager entityManager, SaldoService saldoService,
+                                 IndiceDescricao indiceDescricao, ResumoMensalService resumoMensalService,
+                                 VersaoUsuarioService versaoUsuarioService, DiarioLancamentoService diarioService) {
         this.repository = repository;
+        this.entityManager = entityManager;
+        this.saldoService = saldoService;
+        this.indiceDescricao = indiceDescricao;
+        this.resumoMensalService = resumoMensalService;
+        this.versaoUsuarioService = versaoUsuarioService;
+        this.diarioService = diarioService;
     }
 
     private LancamentoRepository repository;
 
+    private EntityManager entityManager;
+
+    private SaldoService saldoService;
+
+    private IndiceDescricao indiceDescricao;
+
+    private ResumoMensalService resumoMensalService;
+
+    private VersaoUsuarioService versaoUsuarioService;
+
+    private DiarioLancamentoService diarioService;
+
     @Override
     @Transactional
     public Lancamento salvar(Lancamento lancamento) {
         validar(lancamento);
         lancamento.setStatus(StatusLancamento.PENDENTE);
         lancamento.setDataCadastro(LocalDate.now());
-        return repository.save(lancamento);
+        Lancamento lancamentoSalvo = repository.save(lancamento);
+        saldoService.registrarInclusao(lancamentoSalvo);
+        resumoMensalService.registrarInclusao(lancamentoSalvo);
+        diarioService.registrarInclusao(lancamentoSalvo);
+        versaoUsuarioService.registrarAlteracao(lancamentoSalvo.getUsuario().getId());
+        indiceDescricao.registrar(lancamentoSalvo);
+        return lancamentoSalvo;
+    }
+
+    @Override
+    @Transactional
+    public ResultadoLote salvarEmLote(Usuario usuario, List<Lancamento> lancamentos) {
+        if (lancamentos.size() > TAMANHO_LOTE_MAXIMO) {
+            throw new RegraDeNegocioException("O lote deve ter no máximo " + TAMANHO_LOTE_MAXIMO + " lançamentos.");
+        }
+        Map<Integer, String> erros = new LinkedHashMap<>();
+        List<Lancamento> validos = new ArrayList<>(lancamentos.size());
+        LocalDate hoje = LocalDate.now();
+        for (int i = 0; i < lancamentos.size(); i++) {
+            Lancamento lancamento = lancamentos.get(i);
+            lancamento.setUsuario(usuario);
+            try {
+                validar(lancamento);
+            } catch (RegraDeNegocioException e) {
+                erros.put(i, e.getMessage());
+                continue;
+            }
+            lancamento.setStatus(StatusLancamento.PENDENTE);
+            lancamento.setDataCadastro(hoje);
+            validos.add(lancamento);
+        }
+        // as instâncias devolvidas pelo saveAll são as gravadas, com o id atribuído; um merge devolve outra instância
+        List<Lancamento> salvos = new ArrayList<>(validos.size());
+        for (int inicio = 0; inicio < validos.size(); inicio += TAMANHO_BLOCO_INSERCAO) {
+            salvos.addAll(repository.saveAll(validos.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_INSERCAO, validos.size()))));
+            // envia o bloco em um único batch JDBC e libera o contexto de persistência
+            entityManager.flush();
+            entityManager.clear();
+        }
+        if (!salvos.isEmpty()) {
+            saldoService.registrarInclusoes(salvos);
+            resumoMensalService.registrarInclusoes(salvos);
+            diarioService.registrarInclusoes(salvos);
+            versaoUsuarioService.registrarAlteracao(usuario.getId());
+            salvos.forEach(indiceDescricao::registrar);
+        }
+        return new ResultadoLote(salvos, erros);
     }
 
     @Override
@@ -40,30 +141,243 @@ public class LancamentoServiceImpl implements LancamentoService {
     public Lancamento atualizar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
         validar(lancamento);
+        // cópia do estado persistido, tirada antes do merge sobrescrever a instância gerenciada
+        Optional<Lancamento> anterior = repository.findById(lancamento.getId()).map(l -> l.toBuilder().build());
+        return atualizar(lancamento, anterior);
+    }
+
+    private Lancamento atualizar(Lancamento lancamento, Optional<Lancamento> anterior) {
+        if (Objects.isNull(lancamento.getVersao())) {
+            // a versão lida pelo cliente é o que permite ao merge recusar uma alteração sobre dados obsoletos
+            throw new RegraDeNegocioException("Informe a versão do lançamento.");
+        }
+        // o status só muda por atualizarStatus, que valida a transição
+        lancamento.setStatus(anterior.map(Lancamento::getStatus).orElse(StatusLancamento.PENDENTE));
+        if (Objects.isNull(lancamento.getRecorrencia())) {
+            // a alteração de uma ocorrência não a desvincula da recorrência
+            lancamento.setRecorrencia(anterior.map(Lancamento::getRecorrencia).orElse(null));
+            lancamento.setOcorrencia(anterior.map(Lancamento::getOcorrencia).orElse(null));
+        }
         lancamento.setDataCadastro(LocalDate.now());
-        return repository.save(lancamento);
+        Lancamento lancamentoAtualizado = repository.save(lancamento);
+        if (anterior.isPresent()) {
+            saldoService.registrarAlteracao(anterior.get(), lancamentoAtualizado);
+            resumoMensalService.registrarAlteracao(anterior.get(), lancamentoAtualizado);
+            diarioService.registrarAlteracao(anterior.get(), lancamentoAtualizado);
+            Long idUsuarioAnterior = anterior.get().getUsuario().getId();
+            if (!idUsuarioAnterior.equals(lancamentoAtualizado.getUsuario().getId())) {
+                versaoUsuarioService.registrarAlteracao(idUsuarioAnterior);
+            }
+            indiceDescricao.remover(anterior.get());
+        } else {
+            saldoService.registrarInclusao(lancamentoAtualizado);
+            resumoMensalService.registrarInclusao(lancamentoAtualizado);
+            diarioService.registrarInclusao(lancamentoAtualizado);
+        }
+        versaoUsuarioService.registrarAlteracao(lancamentoAtualizado.getUsuario().getId());
+        indiceDescricao.registrar(lancamentoAtualizado);
+        return lancamentoAtualizado;
     }
 
     @Override
+    @Transactional
     public void excluir(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
         repository.delete(lancamento);
+        saldoService.registrarExclusao(lancamento);
+        resumoMensalService.registrarExclusao(lancamento);
+        diarioService.registrarExclusao(lancamento);
+        versaoUsuarioService.registrarAlteracao(lancamento.getUsuario().getId());
+        indiceDescricao.remover(lancamento);
     }
 
     @Override
-    public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-        Example<Lancamento> example = Example.of(lancamentoFiltro,
-                ExampleMatcher.matching()
-                        .withIgnoreCase()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        return repository.findAll(example);
+    @Transactional(readOnly = true)
+    public List<LancamentoResumo> buscar(Lancamento lancamentoFiltro) {
+        Objects.requireNonNull(lancamentoFiltro.getUsuario());
+        Long idUsuario = lancamentoFiltro.getUsuario().getId();
+        Optional<Set<Long>> candidatos = candidatosPorDescricao(lancamentoFiltro);
+        if (candidatos.isPresent()) {
+            if (candidatos.get().isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<LancamentoResumo> lancamentos = new ArrayList<>();
+            for (List<Long> bloco : blocos(candidatos.get())) {
+                lancamentos.addAll(repository.buscarPorIds(idUsuario, bloco, padraoDescricao(lancamentoFiltro),
+                        lancamentoFiltro.getMes(), lancamentoFiltro.getAno()));
+            }
+            lancamentos.sort(ORDEM_BUSCA);
+            return lancamentos;
+        }
+        return repository.buscar(idUsuario, padraoDescricao(lancamentoFiltro),
+                lancamentoFiltro.getMes(), lancamentoFiltro.getAno());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PaginaLancamento buscarPagina(Lancamento lancamentoFiltro, CursorLancamento cursor, Integer tamanho) {
+        Objects.requireNonNull(lancamentoFiltro.getUsuario());
+        int tamanhoPagina = Objects.isNull(tamanho) || tamanho < 1 ? TAMANHO_PAGINA_PADRAO : Math.min(tamanho, TAMANHO_PAGINA_MAXIMO);
+        Long idUsuario = lancamentoFiltro.getUsuario().getId();
+        Optional<Set<Long>> candidatos = candidatosPorDescricao(lancamentoFiltro);
+        if (candidatos.isPresent() && candidatos.get().isEmpty()) {
+            return new PaginaLancamento(Collections.emptyList(), null);
+        }
+        // busca um registro a mais apenas para saber se existe próxima página
+        List<LancamentoResumo> lancamentos = candidatos.isPresent()
+                ? buscarPaginaPorIds(idUsuario, candidatos.get(), lancamentoFiltro, cursor, tamanhoPagina + 1)
+                : repository.buscarPagina(idUsuario, padraoDescricao(lancamentoFiltro),
+                        lancamentoFiltro.getMes(), lancamentoFiltro.getAno(),
+                        cursor.getAno(), cursor.getMes(), cursor.getId(),
+                        PageRequest.of(0, tamanhoPagina + 1));
+        if (lancamentos.size() <= tamanhoPagina) {
+            return new PaginaLancamento(lancamentos, null);
+        }
+        List<LancamentoResumo> pagina = lancamentos.subList(0, tamanhoPagina);
+        return new PaginaLancamento(pagina, CursorLancamento.apos(pagina.get(tamanhoPagina - 1)));
+    }
+
+    /**
+     * Cada bloco de ids traz os seus primeiros registros após o cursor; os primeiros do conjunto estão entre eles.
+     */
+    private List<LancamentoResumo> buscarPaginaPorIds(Long idUsuario, Set<Long> ids, Lancamento lancamentoFiltro,
+                                                      CursorLancamento cursor, int limite) {
+        List<LancamentoResumo> lancamentos = new ArrayList<>();
+        for (List<Long> bloco : blocos(ids)) {
+            lancamentos.addAll(repository.buscarPaginaPorIds(idUsuario, bloco, padraoDescricao(lancamentoFiltro),
+                    lancamentoFiltro.getMes(), lancamentoFiltro.getAno(), cursor.getAno(), cursor.getMes(),
+                    cursor.getId(), PageRequest.of(0, limite)));
+        }
+        lancamentos.sort(ORDEM_BUSCA);
+        return lancamentos.size() > limite ? lancamentos.subList(0, limite) : lancamentos;
+    }
+
+    /**
+     * Os ids candidatos do índice de descrição vão à consulta em blocos, para que a lista do {@code in} tenha
+     * tamanho limitado qualquer que seja o número de lançamentos que casam com o termo.
+     */
+    private static List<List<Long>> blocos(Set<Long> ids) {
+        List<Long> ordenados = new ArrayList<>(new TreeSet<>(ids));
+        List<List<Long>> blocos = new ArrayList<>();
+        for (int inicio = 0; inicio < ordenados.size(); inicio += TAMANHO_BLOCO_IDS) {
+            blocos.add(ordenados.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_IDS, ordenados.size())));
+        }
+        return blocos;
+    }
+
+    private Optional<Set<Long>> candidatosPorDescricao(Lancamento lancamentoFiltro) {
+        if (Objects.isNull(lancamentoFiltro.getDescricao()) || lancamentoFiltro.getDescricao().isEmpty()) {
+            return Optional.empty();
+        }
+        return indiceDescricao.buscar(lancamentoFiltro.getUsuario().getId(), lancamentoFiltro.getDescricao());
+    }
+
+    private static String padraoDescricao(Lancamento lancamentoFiltro) {
+        if (Objects.isNull(lancamentoFiltro.getDescricao())) {
+            return "%";
+        }
+        return "%" + EscapeCharacter.DEFAULT.escape(lancamentoFiltro.getDescricao().toLowerCase()) + "%";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(Long idUsuario, Consumer<LancamentoResumo> consumidor) {
+        // projeções não entram no contexto de persistência, então a memória não cresce com o histórico
+        try (Stream<LancamentoResumo> lancamentos = repository.exportarPorUsuario(idUsuario)) {
+            lancamentos.forEach(consumidor);
+        }
+    }
+
+    @Override
+    @Transactional
     public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
+        Objects.requireNonNull(lancamento.getId());
+        if (!lancamento.getStatus().permiteTransicaoPara(status)) {
+            throw new RegraDeNegocioException("Não é possível alterar o status de " + lancamento.getStatus() +
+                    " para " + status + ".");
+        }
+        Lancamento anterior = lancamento.toBuilder().build();
+        int atualizados = repository.atualizarStatus(lancamento.getId(), lancamento.getVersao(), anterior.getStatus(), status);
+        if (atualizados == 0) {
+            throw new ObjectOptimisticLockingFailureException(Lancamento.class, lancamento.getId());
+        }
         lancamento.setStatus(status);
-        atualizar(lancamento);
+        lancamento.setVersao(lancamento.getVersao() + 1);
+        // o saldo não depende do status e a descrição não muda: só o resumo mensal é ajustado
+        resumoMensalService.registrarAlteracao(anterior, lancamento);
+        diarioService.registrarMudancaDeStatus(anterior, status);
+        versaoUsuarioService.registrarAlteracao(lancamento.getUsuario().getId());
+    }
 
+    /**
+     * Mudança de status por filtro (ano, mês e status atual do lançamento-filtro) ou por ids, em blocos:
+     * cada bloco é lido com bloqueio e alterado por um único UPDATE, e o resumo mensal é ajustado pelos
+     * grupos que as linhas bloqueadas ocupavam. Sem status atual no filtro, são alterados os lançamentos
+     * em qualquer status que permita a transição.
+     */
+    @Override
+    @Transactional
+    public int atualizarStatusEmLote(Lancamento lancamentoFiltro, Collection<Long> ids, StatusLancamento status) {
+        Objects.requireNonNull(lancamentoFiltro.getUsuario());
+        Objects.requireNonNull(status);
+        StatusLancamento atual = lancamentoFiltro.getStatus();
+        if (Objects.nonNull(atual) && !atual.permiteTransicaoPara(status)) {
+            throw new RegraDeNegocioException("Não é possível alterar o status de " + atual + " para " + status + ".");
+        }
+        if (Objects.nonNull(ids) && ids.size() > TAMANHO_LOTE_MAXIMO) {
+            throw new RegraDeNegocioException("O lote deve ter no máximo " + TAMANHO_LOTE_MAXIMO + " lançamentos.");
+        }
+        Set<StatusLancamento> origens = Objects.nonNull(atual) ? Collections.singleton(atual) : status.origens();
+        Long idUsuario = lancamentoFiltro.getUsuario().getId();
+        Integer mes = lancamentoFiltro.getMes();
+        Integer ano = lancamentoFiltro.getAno();
+
+        int atualizados = 0;
+        if (Objects.nonNull(ids)) {
+            List<Long> distintos = new ArrayList<>(new TreeSet<>(ids));
+            for (int inicio = 0; inicio < distintos.size(); inicio += TAMANHO_BLOCO_STATUS) {
+                List<Long> bloco = distintos.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_STATUS, distintos.size()));
+                atualizados += atualizarStatus(repository.bloquearParaMudancaDeStatusPorIds(idUsuario, bloco, origens,
+                        mes, ano), status);
+            }
+            return registrarAlteracao(idUsuario, atualizados);
+        }
+        Long cursor = 0L;
+        List<LancamentoResumo> bloco;
+        do {
+            bloco = repository.bloquearParaMudancaDeStatus(idUsuario, origens, mes, ano, cursor,
+                    PageRequest.of(0, TAMANHO_BLOCO_STATUS));
+            if (!bloco.isEmpty()) {
+                cursor = bloco.get(bloco.size() - 1).getId();
+                atualizados += atualizarStatus(bloco, status);
+            }
+        } while (bloco.size() == TAMANHO_BLOCO_STATUS);
+        return registrarAlteracao(idUsuario, atualizados);
+    }
+
+    private int registrarAlteracao(Long idUsuario, int atualizados) {
+        if (atualizados > 0) {
+            versaoUsuarioService.registrarAlteracao(idUsuario);
+        }
+        return atualizados;
+    }
+
+    private int atualizarStatus(List<LancamentoResumo> bloqueados, StatusLancamento status) {
+        if (bloqueados.isEmpty()) {
+            return 0;
+        }
+        int atualizados = repository.atualizarStatusPorIds(
+                bloqueados.stream().map(LancamentoResumo::getId).collect(Collectors.toList()), status);
+        Map<ResumoMensalId, ResumoMensal> anteriores = new LinkedHashMap<>();
+        bloqueados.forEach(lancamento -> {
+            ResumoMensalId id = new ResumoMensalId(lancamento.getUsuario(), lancamento.getAno(), lancamento.getMes(),
+                    lancamento.getTipo(), lancamento.getStatus());
+            anteriores.merge(id, new ResumoMensal(id, 1L, lancamento.getValor()),
+                    (grupo, novo) -> new ResumoMensal(id, grupo.getQuantidade() + 1, grupo.getTotal().add(novo.getTotal())));
+        });
+        resumoMensalService.registrarMudancasDeStatus(anteriores.values(), status);
+        diarioService.registrarMudancasDeStatus(bloqueados, status);
+        return atualizados;
     }
 
     @Override
@@ -93,23 +407,20 @@ public class LancamentoServiceImpl implements LancamentoService {
         }
     }
 
+    /**
+     * Leitura que antecede alterações (versão para o controle otimista, status atual): transação de escrita,
+     * para ser feita no banco primário e não em uma réplica atrasada.
+     */
     @Override
+    @Transactional
     public Optional<Lancamento> carregarPorId(Long id) {
         return repository.findById(id);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional // o saldo preenche o cache, ver SaldoServiceImpl#obterSaldo
     public BigDecimal obterSaldoPorUsuario(Long id) {
-        BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.RECEITA);
-        BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.DESPESA);
-        if (receitas == null) {
-            receitas = BigDecimal.ZERO;
-        }
-        if (despesas == null) {
-            despesas = BigDecimal.ZERO;
-        }
-        return receitas.subtract(despesas);
+        return saldoService.obterSaldo(id);
     }
 
 }
@@ -0,0 +1,173 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
+import br.eti.jcp.minhasfinancas.model.repositories.RecorrenciaRepository;
+import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import br.eti.jcp.minhasfinancas.services.RecorrenciaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Materializa as ocorrências das recorrências em lotes de {@link LancamentoService#salvarEmLote}: uma compra
+ * em 48 parcelas é gravada em uma transação, com os INSERTs agrupados em batches JDBC. Parcelas são geradas
+ * todas na criação; recorrências por mês final ou sem fim, só até o horizonte configurado à frente do mês
+ * corrente, completado depois pelo agendamento.
+ */
+@Slf4j
+@Service
+public class RecorrenciaServiceImpl implements RecorrenciaService {
+
+    public static final int PARCELAS_MAXIMO = 360;
+
+    private RecorrenciaRepository repository;
+
+    private LancamentoService lancamentoService;
+
+    private TransactionTemplate transacao;
+
+    private int horizonteMeses;
+
+    private Counter falhas;
+
+    public RecorrenciaServiceImpl(RecorrenciaRepository repository, LancamentoService lancamentoService,
+                                  PlatformTransactionManager transactionManager, MeterRegistry registry,
+                                  @Value("${minhasfinancas.recorrencia.horizonte-meses:12}") int horizonteMeses) {
+        this.repository = repository;
+        this.lancamentoService = lancamentoService;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.horizonteMeses = horizonteMeses;
+        this.falhas = Counter.builder("recorrencia.geracao.falhas")
+                .description("Recorrências cuja geração falhou e ficou para a próxima execução")
+                .register(registry);
+    }
+
+    @Override
+    @Transactional
+    public Recorrencia salvar(Recorrencia recorrencia) {
+        validar(recorrencia);
+        recorrencia.setGeradas(0);
+        recorrencia.setConcluida(false);
+        return gerar(repository.save(recorrencia), limite());
+    }
+
+    /**
+     * Completa as recorrências pendentes até o horizonte. Cada uma continua da última ocorrência gravada,
+     * então a primeira execução depois de um período parado gera de uma vez tudo o que ficou para trás.
+     * Cada recorrência tem a própria transação: uma falha desfaz só a recorrência que falhou, que é
+     * registrada no log e na métrica {@code recorrencia.geracao.falhas} e retomada na próxima execução,
+     * e a geração segue com as demais.
+     */
+    @Override
+    @Scheduled(cron = "${minhasfinancas.recorrencia.geracao.cron:0 30 2 * * *}")
+    public int gerarPendentes() {
+        YearMonth limite = limite();
+        int geradas = 0;
+        for (Long id : repository.buscarPendentes()) {
+            try {
+                geradas += transacao.execute(status -> repository.bloquear(id)
+                        .filter(recorrencia -> !recorrencia.getConcluida())
+                        .map(recorrencia -> {
+                            int anteriores = recorrencia.getGeradas();
+                            return gerar(recorrencia, limite).getGeradas() - anteriores;
+                        })
+                        .orElse(0));
+            } catch (RuntimeException e) {
+                falhas.increment();
+                log.error("Falha ao gerar as ocorrências da recorrência {}", id, e);
+            }
+        }
+        return geradas;
+    }
+
+    private Recorrencia gerar(Recorrencia recorrencia, YearMonth limite) {
+        YearMonth fim = recorrencia.getFim();
+        YearMonth ate = Objects.nonNull(recorrencia.getParcelas()) || (Objects.nonNull(fim) && fim.isBefore(limite))
+                ? fim : limite;
+        List<Lancamento> ocorrencias = new ArrayList<>();
+        int ocorrencia = recorrencia.getGeradas() + 1;
+        for (YearMonth mes = recorrencia.getInicio().plusMonths(recorrencia.getGeradas()); !mes.isAfter(ate);
+             mes = mes.plusMonths(1), ocorrencia++) {
+            ocorrencias.add(Lancamento.builder()
+                    .descricao(descricao(recorrencia, ocorrencia))
+                    .mes(mes.getMonthValue())
+                    .ano(mes.getYear())
+                    .valor(recorrencia.getValor())
+                    .tipo(recorrencia.getTipo())
+                    .recorrencia(recorrencia)
+                    .ocorrencia(ocorrencia)
+                    .build());
+        }
+        if (!ocorrencias.isEmpty()) {
+            ResultadoLote resultado = lancamentoService.salvarEmLote(recorrencia.getUsuario(), ocorrencias);
+            if (!resultado.getErros().isEmpty()) {
+                throw new RegraDeNegocioException(resultado.getErros().values().iterator().next());
+            }
+        }
+        recorrencia.setGeradas(recorrencia.getGeradas() + ocorrencias.size());
+        recorrencia.setConcluida(Objects.nonNull(fim)
+                && recorrencia.getInicio().plusMonths(recorrencia.getGeradas()).isAfter(fim));
+        // o lote limpa o contexto de persistência: a recorrência volta a ser gerenciada pelo merge
+        return repository.save(recorrencia);
+    }
+
+    private static String descricao(Recorrencia recorrencia, int ocorrencia) {
+        if (Objects.isNull(recorrencia.getParcelas())) {
+            return recorrencia.getDescricao();
+        }
+        return recorrencia.getDescricao() + " (" + ocorrencia + "/" + recorrencia.getParcelas() + ")";
+    }
+
+    private YearMonth limite() {
+        return YearMonth.now().plusMonths(horizonteMeses);
+    }
+
+    @Override
+    public void validar(Recorrencia recorrencia) {
+        // a primeira ocorrência segue as regras de qualquer lançamento
+        lancamentoService.validar(Lancamento.builder()
+                .descricao(recorrencia.getDescricao())
+                .mes(recorrencia.getMesInicial())
+                .ano(recorrencia.getAnoInicial())
+                .usuario(recorrencia.getUsuario())
+                .valor(recorrencia.getValor())
+                .tipo(recorrencia.getTipo())
+                .build());
+
+        if (Objects.nonNull(recorrencia.getParcelas())) {
+            if (recorrencia.getParcelas() < 1 || recorrencia.getParcelas() > PARCELAS_MAXIMO) {
+                throw new RegraDeNegocioException("Informe entre 1 e " + PARCELAS_MAXIMO + " parcelas.");
+            }
+            if (Objects.nonNull(recorrencia.getMesFinal()) || Objects.nonNull(recorrencia.getAnoFinal())) {
+                throw new RegraDeNegocioException("Informe as parcelas ou o mês final, não ambos.");
+            }
+        }
+
+        if (Objects.isNull(recorrencia.getMesFinal()) != Objects.isNull(recorrencia.getAnoFinal())) {
+            throw new RegraDeNegocioException("Informe o mês e o ano finais.");
+        }
+
+        if (Objects.nonNull(recorrencia.getMesFinal())) {
+            if (recorrencia.getMesFinal() < 1 || recorrencia.getMesFinal() > 12) {
+                throw new RegraDeNegocioException("Informe um mês final válido.");
+            }
+            if (recorrencia.getFim().isBefore(recorrencia.getInicio())) {
+                throw new RegraDeNegocioException("O mês final não pode ser anterior ao inicial.");
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensalId;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.model.repositories.ResumoMensalRepository;
+import br.eti.jcp.minhasfinancas.services.ResumoMensalService;
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+public class ResumoMensalServiceImpl implements ResumoMensalService {
+
+    private static final int TAMANHO_LOTE_RECONSTRUCAO = 500;
+
+    private ResumoMensalRepository repository;
+
+    private LancamentoRepository lancamentoRepository;
+
+    private EntityManager entityManager;
+
+    private VersaoUsuarioService versaoUsuarioService;
+
+    public ResumoMensalServiceImpl(ResumoMensalRepository repository, LancamentoRepository lancamentoRepository,
+                                   EntityManager entityManager, VersaoUsuarioService versaoUsuarioService) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.entityManager = entityManager;
+        this.versaoUsuarioService = versaoUsuarioService;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarInclusao(Lancamento lancamento) {
+        somar(ResumoMensalId.de(lancamento), 1L, lancamento.getValor());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarInclusoes(List<Lancamento> lancamentos) {
+        Map<ResumoMensalId, ResumoMensal> deltas = new LinkedHashMap<>();
+        lancamentos.forEach(lancamento -> deltas.merge(ResumoMensalId.de(lancamento),
+                new ResumoMensal(ResumoMensalId.de(lancamento), 1L, lancamento.getValor()),
+                (atual, novo) -> new ResumoMensal(atual.getId(), atual.getQuantidade() + 1,
+                        atual.getTotal().add(novo.getTotal()))));
+        deltas.values().forEach(delta -> somar(delta.getId(), delta.getQuantidade(), delta.getTotal()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarExclusao(Lancamento lancamento) {
+        somar(ResumoMensalId.de(lancamento), -1L, lancamento.getValor().negate());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracao(Lancamento anterior, Lancamento atual) {
+        ResumoMensalId idAnterior = ResumoMensalId.de(anterior);
+        ResumoMensalId idAtual = ResumoMensalId.de(atual);
+        if (idAnterior.equals(idAtual)) {
+            BigDecimal diferenca = atual.getValor().subtract(anterior.getValor());
+            if (diferenca.signum() != 0) {
+                somar(idAtual, 0L, diferenca);
+            }
+        } else {
+            somar(idAnterior, -1L, anterior.getValor().negate());
+            somar(idAtual, 1L, atual.getValor());
+        }
+    }
+
+    /**
+     * Ajuste de uma mudança de status em massa, a partir dos grupos (com quantidade e total) que os
+     * lançamentos alterados ocupavam antes da mudança; deve ser chamado após o UPDATE.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMudancasDeStatus(Collection<ResumoMensal> anteriores, StatusLancamento status) {
+        Map<ResumoMensalId, ResumoMensal> deltas = new LinkedHashMap<>();
+        anteriores.forEach(anterior -> {
+            ResumoMensalId idAnterior = anterior.getId();
+            ResumoMensalId idAtual = new ResumoMensalId(idAnterior.getIdUsuario(), idAnterior.getAno(),
+                    idAnterior.getMes(), idAnterior.getTipo(), status);
+            acumular(deltas, idAnterior, -anterior.getQuantidade(), anterior.getTotal().negate());
+            acumular(deltas, idAtual, anterior.getQuantidade(), anterior.getTotal());
+        });
+        deltas.values().forEach(delta -> somar(delta.getId(), delta.getQuantidade(), delta.getTotal()));
+    }
+
+    private static void acumular(Map<ResumoMensalId, ResumoMensal> deltas, ResumoMensalId id, Long quantidade,
+                                 BigDecimal total) {
+        deltas.merge(id, new ResumoMensal(id, quantidade, total),
+                (atual, novo) -> new ResumoMensal(id, atual.getQuantidade() + novo.getQuantidade(),
+                        atual.getTotal().add(novo.getTotal())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumoMensal> buscar(Long idUsuario, Integer ano) {
+        return repository.buscarPorUsuarioEAno(idUsuario, ano);
+    }
+
+    @Override
+    @Transactional
+    public void reconstruir(Long idUsuario) {
+        repository.excluirPorUsuario(idUsuario);
+        lancamentoRepository.calcularResumosMensais(idUsuario).forEach(entityManager::persist);
+        // a reconstrução só muda o resumo se ele estava divergente, mas nesse caso as respostas em cache também
+        versaoUsuarioService.registrarAlteracao(idUsuario);
+    }
+
+    @Override
+    @Transactional
+    public void reconstruirTodos() {
+        repository.excluirTodos();
+        try (Stream<ResumoMensal> resumos = lancamentoRepository.calcularTodosResumosMensais()) {
+            int[] processados = {0};
+            resumos.forEach(resumo -> {
+                entityManager.persist(resumo);
+                if (++processados[0] % TAMANHO_LOTE_RECONSTRUCAO == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            });
+        }
+        versaoUsuarioService.registrarAlteracaoDeTodos();
+    }
+
+    private void somar(ResumoMensalId id, Long quantidade, BigDecimal total) {
+        int atualizados = repository.somar(id, quantidade, total);
+        if (atualizados == 0) {
+            // grupo ainda sem resumo: assim como no saldo, o cálculo a partir dos lançamentos já
+            // enxerga a alteração corrente, então cada grupo é ajustado uma única vez por transação.
+            // Se outra transação criou o grupo primeiro, esta alteração é somada ao resumo dela.
+            Optional<ResumoMensal> calculado = lancamentoRepository.calcularResumoMensal(id.getIdUsuario(),
+                    id.getAno(), id.getMes(), id.getTipo(), id.getStatus());
+            if (calculado.isPresent() && repository.criar(calculado.get()) == 0) {
+                repository.somar(id, quantidade, total);
+            }
+        }
+    }
+}
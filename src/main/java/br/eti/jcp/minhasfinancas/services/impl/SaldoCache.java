@@ -0,0 +1,63 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cache local e limitado (tamanho e tempo de vida) do saldo por usuário.
+ * As estatísticas de acertos, falhas e remoções são publicadas como métricas "cache.*" com cache=saldo.
+ */
+@Component
+public class SaldoCache implements MeterBinder {
+
+    private final Cache<Long, BigDecimal> cache;
+
+    public SaldoCache(@Value("${minhasfinancas.saldo.cache.tamanho-maximo:100000}") long tamanhoMaximo,
+                      @Value("${minhasfinancas.saldo.cache.expiracao-segundos:300}") long expiracaoSegundos) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracaoSegundos, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public BigDecimal obter(Long idUsuario, Function<Long, BigDecimal> carregar) {
+        return cache.get(idUsuario, carregar);
+    }
+
+    /**
+     * Remove o saldo do usuário agora e, se houver transação ativa, novamente após o commit,
+     * descartando valores que leitores concorrentes tenham carregado antes da alteração ser confirmada.
+     */
+    public void invalidar(Long idUsuario) {
+        cache.invalidate(idUsuario);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(idUsuario);
+                }
+            });
+        }
+    }
+
+    public void invalidarTodos() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "saldo");
+    }
+}
@@ -0,0 +1,145 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.SaldoUsuario;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.model.repositories.SaldoUsuarioRepository;
+import br.eti.jcp.minhasfinancas.services.SaldoService;
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class SaldoServiceImpl implements SaldoService {
+
+    private static final int TAMANHO_LOTE_RECONCILIACAO = 500;
+
+    private SaldoUsuarioRepository repository;
+
+    private LancamentoRepository lancamentoRepository;
+
+    private EntityManager entityManager;
+
+    private SaldoCache cache;
+
+    private VersaoUsuarioService versaoUsuarioService;
+
+    public SaldoServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+                            EntityManager entityManager, SaldoCache cache, VersaoUsuarioService versaoUsuarioService) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.entityManager = entityManager;
+        this.cache = cache;
+        this.versaoUsuarioService = versaoUsuarioService;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarInclusao(Lancamento lancamento) {
+        somar(lancamento.getUsuario().getId(), valorComSinal(lancamento));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarInclusoes(List<Lancamento> lancamentos) {
+        Map<Long, BigDecimal> deltas = lancamentos.stream()
+                .collect(Collectors.groupingBy(lancamento -> lancamento.getUsuario().getId(),
+                        Collectors.reducing(BigDecimal.ZERO, SaldoServiceImpl::valorComSinal, BigDecimal::add)));
+        deltas.forEach(this::somar);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarExclusao(Lancamento lancamento) {
+        somar(lancamento.getUsuario().getId(), valorComSinal(lancamento).negate());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracao(Lancamento anterior, Lancamento atual) {
+        Long idUsuarioAnterior = anterior.getUsuario().getId();
+        Long idUsuarioAtual = atual.getUsuario().getId();
+        if (idUsuarioAnterior.equals(idUsuarioAtual)) {
+            somar(idUsuarioAtual, valorComSinal(atual).subtract(valorComSinal(anterior)));
+        } else {
+            somar(idUsuarioAnterior, valorComSinal(anterior).negate());
+            somar(idUsuarioAtual, valorComSinal(atual));
+        }
+    }
+
+    @Override
+    @Transactional // preenche o cache: lê do primário, nunca de uma réplica atrasada
+    public BigDecimal obterSaldo(Long idUsuario) {
+        return cache.obter(idUsuario, id -> repository.findById(id)
+                .map(SaldoUsuario::getValor)
+                .orElseGet(() -> calcular(id)));
+    }
+
+    @Override
+    @Transactional
+    public BigDecimal reconstruir(Long idUsuario) {
+        BigDecimal saldo = calcular(idUsuario);
+        repository.save(new SaldoUsuario(idUsuario, saldo));
+        cache.invalidar(idUsuario);
+        versaoUsuarioService.registrarAlteracao(idUsuario);
+        return saldo;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${minhasfinancas.saldo.reconciliacao.cron:0 0 3 * * *}")
+    public void reconstruirTodos() {
+        repository.zerarSemLancamentos();
+        try (Stream<SaldoUsuario> saldos = lancamentoRepository.calcularSaldos(TipoLancamento.RECEITA)) {
+            int[] processados = {0};
+            saldos.forEach(saldo -> {
+                repository.save(saldo);
+                if (++processados[0] % TAMANHO_LOTE_RECONCILIACAO == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            });
+        }
+        cache.invalidarTodos();
+        versaoUsuarioService.registrarAlteracaoDeTodos();
+    }
+
+    private void somar(Long idUsuario, BigDecimal delta) {
+        cache.invalidar(idUsuario);
+        int atualizados = repository.somar(idUsuario, delta);
+        // primeira movimentação: o cálculo completo já enxerga a alteração corrente, que é descarregada antes
+        // da consulta. Por isso cada transação deve ajustar o saldo de um usuário uma única vez. Se outra
+        // transação criou o saldo primeiro, o cálculo dela não enxerga esta alteração, que é somada a ele.
+        if (atualizados == 0 && repository.criar(idUsuario, calcular(idUsuario)) == 0) {
+            repository.somar(idUsuario, delta);
+        }
+    }
+
+    private BigDecimal calcular(Long idUsuario) {
+        BigDecimal receitas = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(idUsuario, TipoLancamento.RECEITA);
+        BigDecimal despesas = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(idUsuario, TipoLancamento.DESPESA);
+        if (receitas == null) {
+            receitas = BigDecimal.ZERO;
+        }
+        if (despesas == null) {
+            despesas = BigDecimal.ZERO;
+        }
+        return receitas.subtract(despesas);
+    }
+
+    private static BigDecimal valorComSinal(Lancamento lancamento) {
+        Objects.requireNonNull(lancamento.getValor());
+        return TipoLancamento.RECEITA.equals(lancamento.getTipo()) ? lancamento.getValor() : lancamento.getValor().negate();
+    }
+}
@@ -0,0 +1,109 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.exceptions.AutenticacaoException;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.services.TokenService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tokens no formato JWT (HS256): cabeçalho, conteúdo e assinatura HMAC-SHA256 em Base64 URL.
+ * O conteúdo traz o id do usuário ("sub") e a expiração ("exp"), de modo que a validação
+ * depende apenas do segredo compartilhado. O segredo não tem valor padrão: sem ele, ou com menos de
+ * 32 bytes (o tamanho da chave do HS256), a aplicação não sobe.
+ */
+@Service
+public class TokenServiceImpl implements TokenService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int TAMANHO_MINIMO_SEGREDO = 32;
+    private static final String CABECALHO = codificar("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec chave;
+    private final long expiracaoSegundos;
+    private final Clock relogio;
+
+    @Autowired
+    public TokenServiceImpl(ObjectMapper objectMapper,
+                            @Value("${minhasfinancas.seguranca.token.segredo:}") String segredo,
+                            @Value("${minhasfinancas.seguranca.token.expiracao-minutos:60}") long expiracaoMinutos) {
+        this(objectMapper, segredo, expiracaoMinutos, Clock.systemUTC());
+    }
+
+    TokenServiceImpl(ObjectMapper objectMapper, String segredo, long expiracaoMinutos, Clock relogio) {
+        if (segredo.getBytes(StandardCharsets.UTF_8).length < TAMANHO_MINIMO_SEGREDO) {
+            throw new IllegalStateException("O segredo dos tokens (minhasfinancas.seguranca.token.segredo) deve ter " +
+                    "ao menos " + TAMANHO_MINIMO_SEGREDO + " bytes.");
+        }
+        this.objectMapper = objectMapper;
+        this.chave = new SecretKeySpec(segredo.getBytes(StandardCharsets.UTF_8), ALGORITMO);
+        this.expiracaoSegundos = expiracaoMinutos * 60;
+        this.relogio = relogio;
+    }
+
+    @Override
+    public String gerar(Usuario usuario) {
+        long agora = relogio.instant().getEpochSecond();
+        Map<String, Object> conteudo = new LinkedHashMap<>();
+        conteudo.put("sub", usuario.getId().toString());
+        conteudo.put("iat", agora);
+        conteudo.put("exp", agora + expiracaoSegundos);
+        try {
+            String dados = CABECALHO + "." + codificar(objectMapper.writeValueAsBytes(conteudo));
+            return dados + "." + codificar(assinar(dados));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Long validar(String token) {
+        String[] partes = token.split("\\.");
+        if (partes.length != 3 || !CABECALHO.equals(partes[0])) {
+            throw new AutenticacaoException("Token inválido.");
+        }
+        try {
+            byte[] assinatura = Base64.getUrlDecoder().decode(partes[2]);
+            if (!MessageDigest.isEqual(assinatura, assinar(partes[0] + "." + partes[1]))) {
+                throw new AutenticacaoException("Token inválido.");
+            }
+            JsonNode conteudo = objectMapper.readTree(Base64.getUrlDecoder().decode(partes[1]));
+            if (conteudo.path("exp").asLong() <= relogio.instant().getEpochSecond()) {
+                throw new AutenticacaoException("Token expirado.");
+            }
+            return Long.valueOf(conteudo.path("sub").asText());
+        } catch (IllegalArgumentException | IOException e) {
+            throw new AutenticacaoException("Token inválido.");
+        }
+    }
+
+    private byte[] assinar(String dados) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            return mac.doFinal(dados.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String codificar(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -5,33 +5,71 @@ import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.repositories.UsuarioRepository;
 import br.eti.jcp.minhasfinancas.services.UsuarioService;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 
+    private static final Pattern HASH_BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$.{53}$");
+
     private UsuarioRepository repository;
 
-    public UsuarioServiceImpl(UsuarioRepository repository) {
+    private PasswordEncoder passwordEncoder;
+
+    private AutenticacaoCache cache;
+
+    public UsuarioServiceImpl(UsuarioRepository repository, PasswordEncoder passwordEncoder, AutenticacaoCache cache) {
         this.repository = repository;
+        this.passwordEncoder = passwordEncoder;
+        this.cache = cache;
     }
 
     @Override
     public Usuario autenticar(String email, String senha) {
+        if (Objects.isNull(email) || Objects.isNull(senha)) {
+            throw new AutenticacaoException("Usuário ou senha invalidos.");
+        }
+        Optional<Usuario> autenticado = cache.obter(email, senha);
+        if (autenticado.isPresent()) {
+            return autenticado.get();
+        }
         Optional<Usuario> usuario = repository.findByEmail(email);
-        if (usuario.isEmpty() || !usuario.get().getSenha().equals(senha)) {
+        if (usuario.isEmpty() || !senhaConfere(usuario.get(), senha)) {
                 throw new AutenticacaoException("Usuário ou senha invalidos.");
         }
+        cache.registrar(usuario.get(), senha);
         return usuario.get();
     }
 
+    private boolean senhaConfere(Usuario usuario, String senha) {
+        if (HASH_BCRYPT.matcher(usuario.getSenha()).matches()) {
+            return passwordEncoder.matches(senha, usuario.getSenha());
+        }
+        // senha anterior ao hash: confere em texto e já grava o hash no lugar
+        boolean confere = MessageDigest.isEqual(usuario.getSenha().getBytes(StandardCharsets.UTF_8),
+                senha.getBytes(StandardCharsets.UTF_8));
+        if (confere) {
+            usuario.setSenha(passwordEncoder.encode(senha));
+            repository.save(usuario);
+        }
+        return confere;
+    }
+
     @Override
     @Transactional
     public Usuario salvarUsuario(Usuario usuario) {
         validarEmail(usuario.getEmail());
+        if (Objects.nonNull(usuario.getSenha())) {
+            usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
+        }
         return repository.save(usuario);
     }
 
@@ -47,4 +85,15 @@ public class UsuarioServiceImpl implements UsuarioService {
     public Optional<Usuario> carregarPorId(Long id) {
         return repository.findById(id);
     }
+
+    @Override
+    public boolean existePorId(Long id) {
+        return Objects.nonNull(id) && repository.existsById(id);
+    }
+
+    @Override
+    public Usuario obterReferencia(Long id) {
+        // proxy sem consulta ao banco: basta para gravar a chave estrangeira ou filtrar por id
+        return repository.getOne(id);
+    }
 }
@@ -0,0 +1,40 @@
+package br.eti.jcp.minhasfinancas.services.impl;
+
+import br.eti.jcp.minhasfinancas.model.entity.VersaoUsuario;
+import br.eti.jcp.minhasfinancas.model.repositories.VersaoUsuarioRepository;
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class VersaoUsuarioServiceImpl implements VersaoUsuarioService {
+
+    private VersaoUsuarioRepository repository;
+
+    public VersaoUsuarioServiceImpl(VersaoUsuarioRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracao(Long idUsuario) {
+        // primeira alteração do usuário: a versão 0 é a de quem ainda não tem registro. Se outra transação
+        // criou o registro primeiro, esta alteração o incrementa.
+        if (repository.incrementar(idUsuario) == 0 && repository.criar(idUsuario) == 0) {
+            repository.incrementar(idUsuario);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracaoDeTodos() {
+        repository.incrementarTodos();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long obterVersao(Long idUsuario) {
+        return repository.findById(idUsuario).map(VersaoUsuario::getVersao).orElse(0L);
+    }
+}
@@ -0,0 +1,23 @@
+-- Mesmo esquema de db/migration/postgresql, nos tipos do H2
+
+CREATE TABLE financas.usuario (
+    id    bigint       AUTO_INCREMENT NOT NULL,
+    nome  varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    senha varchar(255) NOT NULL,
+    CONSTRAINT pk_usuario PRIMARY KEY (id)
+);
+
+CREATE TABLE financas.lancamento (
+    id            bigint         AUTO_INCREMENT NOT NULL,
+    descricao     varchar(255)   NOT NULL,
+    mes           integer        NOT NULL,
+    ano           integer        NOT NULL,
+    id_usuario    bigint         NOT NULL,
+    valor         decimal(19, 2) NOT NULL,
+    data_cadastro timestamp,
+    tipo          varchar(255)   NOT NULL,
+    status        varchar(255)   NOT NULL,
+    CONSTRAINT pk_lancamento PRIMARY KEY (id),
+    CONSTRAINT fk_lancamento_usuario FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id)
+);
@@ -0,0 +1,34 @@
+-- Mesmas alterações de db/migration/postgresql, nos tipos do H2
+
+ALTER TABLE financas.lancamento ADD COLUMN versao bigint DEFAULT 0 NOT NULL;
+
+-- a identidade do H2 não cria sequência nomeada; bases H2 são sempre novas, então a dos blocos de 50 ids parte de 1
+CREATE SEQUENCE financas.lancamento_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE financas.saldo_usuario (
+    id_usuario bigint         NOT NULL,
+    valor      decimal(19, 2) NOT NULL,
+    CONSTRAINT pk_saldo_usuario PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE financas.resumo_mensal (
+    id_usuario bigint         NOT NULL,
+    ano        integer        NOT NULL,
+    mes        integer        NOT NULL,
+    tipo       varchar(255)   NOT NULL,
+    status     varchar(255)   NOT NULL,
+    quantidade bigint         NOT NULL,
+    total      decimal(19, 2) NOT NULL,
+    CONSTRAINT pk_resumo_mensal PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
+
+INSERT INTO financas.saldo_usuario (id_usuario, valor)
+SELECT u.id, COALESCE(SUM(CASE WHEN l.tipo = 'RECEITA' THEN l.valor ELSE -l.valor END), 0)
+FROM financas.usuario u
+LEFT JOIN financas.lancamento l ON l.id_usuario = u.id
+GROUP BY u.id;
+
+INSERT INTO financas.resumo_mensal (id_usuario, ano, mes, tipo, status, quantidade, total)
+SELECT id_usuario, ano, mes, tipo, status, COUNT(*), SUM(valor)
+FROM financas.lancamento
+GROUP BY id_usuario, ano, mes, tipo, status;
@@ -0,0 +1,14 @@
+-- Mesmos índices de db/migration/postgresql, exceto o de trigramas (a busca por descrição no H2 usa o
+-- índice em memória)
+
+CREATE INDEX idx_lancamento_usuario_periodo ON financas.lancamento (id_usuario, ano, mes, id);
+
+-- o H2 sempre cria para a chave estrangeira um índice só de id_usuario, e nos empates de custo fica com o
+-- índice criado primeiro; recriada depois do índice acima, a chave não desvia as consultas por período
+ALTER TABLE financas.lancamento DROP CONSTRAINT fk_lancamento_usuario;
+ALTER TABLE financas.lancamento ADD CONSTRAINT fk_lancamento_usuario
+    FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id);
+
+CREATE INDEX idx_lancamento_usuario_tipo ON financas.lancamento (id_usuario, tipo, valor);
+
+CREATE UNIQUE INDEX uk_usuario_email ON financas.usuario (email);
@@ -0,0 +1,31 @@
+-- lançamentos mensais repetidos (ver Recorrencia) e o vínculo de cada ocorrência gerada
+CREATE TABLE financas.recorrencia (
+    id          bigint         AUTO_INCREMENT NOT NULL,
+    id_usuario  bigint         NOT NULL,
+    descricao   varchar(255)   NOT NULL,
+    valor       decimal(19, 2) NOT NULL,
+    tipo        varchar(255)   NOT NULL,
+    mes_inicial integer        NOT NULL,
+    ano_inicial integer        NOT NULL,
+    parcelas    integer,
+    mes_final   integer,
+    ano_final   integer,
+    geradas     integer        DEFAULT 0 NOT NULL,
+    concluida   boolean        DEFAULT false NOT NULL,
+    CONSTRAINT pk_recorrencia PRIMARY KEY (id),
+    CONSTRAINT fk_recorrencia_usuario FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id)
+);
+
+-- recorrências ainda com ocorrências a gerar, percorridas pelo agendamento
+CREATE INDEX idx_recorrencia_pendente
+    ON financas.recorrencia (concluida, id);
+
+ALTER TABLE financas.lancamento ADD COLUMN id_recorrencia bigint;
+ALTER TABLE financas.lancamento ADD COLUMN ocorrencia integer;
+
+-- uma ocorrência é gravada uma única vez, mesmo que duas gerações se sobreponham
+CREATE UNIQUE INDEX uk_lancamento_recorrencia_ocorrencia
+    ON financas.lancamento (id_recorrencia, ocorrencia);
+
+ALTER TABLE financas.lancamento ADD CONSTRAINT fk_lancamento_recorrencia
+    FOREIGN KEY (id_recorrencia) REFERENCES financas.recorrencia (id);
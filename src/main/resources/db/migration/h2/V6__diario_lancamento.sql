@@ -0,0 +1,40 @@
+-- diário só de inserção das mutações de lançamentos, com deltas por grupo (ver RegistroDiario)
+-- o H2 não expõe o id da transação: id_transacao fica 0 e a leitura segue a ordem dos ids
+CREATE TABLE financas.diario_lancamento (
+    id            bigint         AUTO_INCREMENT NOT NULL,
+    id_usuario    bigint         NOT NULL,
+    id_lancamento bigint         NOT NULL,
+    operacao      varchar(255)   NOT NULL,
+    ano           integer        NOT NULL,
+    mes           integer        NOT NULL,
+    tipo          varchar(255)   NOT NULL,
+    status        varchar(255)   NOT NULL,
+    quantidade    integer        NOT NULL,
+    valor         decimal(19, 2) NOT NULL,
+    data_registro timestamp      NOT NULL,
+    id_transacao  bigint         NOT NULL DEFAULT 0,
+    CONSTRAINT pk_diario_lancamento PRIMARY KEY (id)
+);
+
+-- leitura dos consumidores a partir de uma posição
+CREATE INDEX idx_diario_lancamento_posicao
+    ON financas.diario_lancamento (id_transacao, id);
+
+-- reprocessamento do diário de um usuário a partir de uma posição
+CREATE INDEX idx_diario_lancamento_usuario
+    ON financas.diario_lancamento (id_usuario, id_transacao, id);
+
+-- posição de cada consumidor do diário (ver ConsumidorDiario)
+CREATE TABLE financas.consumidor_diario (
+    nome        varchar(255) NOT NULL,
+    transacao   bigint       NOT NULL,
+    id_registro bigint       NOT NULL,
+    CONSTRAINT pk_consumidor_diario PRIMARY KEY (nome)
+);
+
+-- os lançamentos já existentes entram como inclusões, para que o diário desde o início reproduza o estado atual
+INSERT INTO financas.diario_lancamento (id_usuario, id_lancamento, operacao, ano, mes, tipo, status, quantidade,
+                                        valor, data_registro)
+SELECT id_usuario, id, 'INCLUSAO', ano, mes, tipo, status, 1, valor, CURRENT_TIMESTAMP
+FROM financas.lancamento
+ORDER BY id;
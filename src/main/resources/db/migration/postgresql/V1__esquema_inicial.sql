@@ -0,0 +1,24 @@
+-- Esquema anterior às migrações, como as bases existentes já o têm; essas bases são marcadas nesta versão
+-- (baseline-on-migrate) e recebem apenas as seguintes
+
+CREATE TABLE financas.usuario (
+    id    bigserial    NOT NULL,
+    nome  varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    senha varchar(255) NOT NULL,
+    CONSTRAINT pk_usuario PRIMARY KEY (id)
+);
+
+CREATE TABLE financas.lancamento (
+    id            bigserial      NOT NULL,
+    descricao     varchar(255)   NOT NULL,
+    mes           integer        NOT NULL,
+    ano           integer        NOT NULL,
+    id_usuario    bigint         NOT NULL,
+    valor         numeric(19, 2) NOT NULL,
+    data_cadastro timestamp,
+    tipo          varchar(255)   NOT NULL,
+    status        varchar(255)   NOT NULL,
+    CONSTRAINT pk_lancamento PRIMARY KEY (id),
+    CONSTRAINT fk_lancamento_usuario FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id)
+);
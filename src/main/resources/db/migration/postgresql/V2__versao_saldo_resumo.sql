@@ -0,0 +1,39 @@
+-- Alterações de esquema feitas antes das migrações: primeira versão aplicada às bases marcadas no baseline
+
+-- controle otimista de concorrência (Lancamento.versao)
+ALTER TABLE financas.lancamento ADD COLUMN versao bigint NOT NULL DEFAULT 0;
+
+-- o Hibernate reserva ids em blocos de 50 (allocationSize) a partir do valor devolvido pela sequência: a
+-- sequência do bigserial passa a andar de 50 em 50, com o primeiro bloco inteiro acima do maior id existente
+ALTER SEQUENCE financas.lancamento_id_seq INCREMENT BY 50;
+SELECT setval('financas.lancamento_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM financas.lancamento;
+
+CREATE TABLE financas.saldo_usuario (
+    id_usuario bigint         NOT NULL,
+    valor      numeric(19, 2) NOT NULL,
+    CONSTRAINT pk_saldo_usuario PRIMARY KEY (id_usuario)
+);
+
+-- chave na ordem (id_usuario, ano, ...): o resumo de um ano é uma leitura de intervalo
+CREATE TABLE financas.resumo_mensal (
+    id_usuario bigint         NOT NULL,
+    ano        integer        NOT NULL,
+    mes        integer        NOT NULL,
+    tipo       varchar(255)   NOT NULL,
+    status     varchar(255)   NOT NULL,
+    quantidade bigint         NOT NULL,
+    total      numeric(19, 2) NOT NULL,
+    CONSTRAINT pk_resumo_mensal PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
+
+-- saldos e resumos dos lançamentos existentes; todo usuário tem saldo, ainda que sem lançamentos
+INSERT INTO financas.saldo_usuario (id_usuario, valor)
+SELECT u.id, COALESCE(SUM(CASE WHEN l.tipo = 'RECEITA' THEN l.valor ELSE -l.valor END), 0)
+FROM financas.usuario u
+LEFT JOIN financas.lancamento l ON l.id_usuario = u.id
+GROUP BY u.id;
+
+INSERT INTO financas.resumo_mensal (id_usuario, ano, mes, tipo, status, quantidade, total)
+SELECT id_usuario, ano, mes, tipo, status, COUNT(*), SUM(valor)
+FROM financas.lancamento
+GROUP BY id_usuario, ano, mes, tipo, status;
@@ -0,0 +1,21 @@
+-- Índices no formato das consultas de LancamentoRepository e UsuarioRepository.
+-- IF NOT EXISTS: bases marcadas no baseline podem já ter parte deles.
+
+-- buscas, paginação por chave e exportação: filtro por usuário e ordem (ano, mes, id);
+-- também cobre o resumo de um mês e a chave estrangeira para usuario
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_periodo
+    ON financas.lancamento (id_usuario, ano, mes, id);
+
+-- saldo por tipo: soma lida só do índice, sem visitar a tabela
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_tipo
+    ON financas.lancamento (id_usuario, tipo, valor);
+
+-- login e verificação de e-mail já cadastrado
+CREATE UNIQUE INDEX IF NOT EXISTS uk_usuario_email
+    ON financas.usuario (email);
+
+-- busca por trecho da descrição: atende lower(descricao) like '%termo%'
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_lancamento_descricao_trgm
+    ON financas.lancamento USING gin (lower(descricao) gin_trgm_ops);
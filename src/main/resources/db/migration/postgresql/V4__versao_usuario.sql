@@ -0,0 +1,10 @@
+-- contador de alterações por usuário, base das ETags (ver VersaoUsuario)
+CREATE TABLE financas.versao_usuario (
+    id_usuario bigint NOT NULL,
+    versao     bigint NOT NULL,
+    CONSTRAINT pk_versao_usuario PRIMARY KEY (id_usuario)
+);
+
+-- usuários já existentes partem da versão 0; os novos ganham o registro na primeira alteração
+INSERT INTO financas.versao_usuario (id_usuario, versao)
+SELECT id, 0 FROM financas.usuario;
@@ -3,7 +3,8 @@ package br.eti.jcp.minhasfinancas;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// o segredo dos tokens não tem valor padrão fora do perfil de teste
+@SpringBootTest(properties = "minhasfinancas.seguranca.token.segredo=segredo-do-teste-de-contexto-com-32-bytes")
 class MinhasfinancasApplicationTests {
 
 	@Test
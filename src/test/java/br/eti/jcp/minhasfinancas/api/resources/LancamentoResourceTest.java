@@ -0,0 +1,175 @@
+package br.eti.jcp.minhasfinancas.api.resources;
+
+import br.eti.jcp.minhasfinancas.api.dto.LancamentoDTO;
+import br.eti.jcp.minhasfinancas.api.dto.LoteLancamentoDTO;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
+import br.eti.jcp.minhasfinancas.api.security.ControleAdmissao;
+import br.eti.jcp.minhasfinancas.config.ExecutoresPersistencia;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import br.eti.jcp.minhasfinancas.services.RecorrenciaService;
+import br.eti.jcp.minhasfinancas.services.ResumoMensalService;
+import br.eti.jcp.minhasfinancas.services.TokenService;
+import br.eti.jcp.minhasfinancas.services.UsuarioService;
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoResource.class)
+@AutoConfigureMockMvc
+@Import({ExecutoresPersistencia.class, ControleAdmissao.class, RespostaCondicional.class})
+public class LancamentoResourceTest {
+
+    static final String API = "/api/lancamentos";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    LancamentoService service;
+
+    @MockBean
+    UsuarioService usuarioService;
+
+    @MockBean
+    ResumoMensalService resumoMensalService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @MockBean
+    RecorrenciaService recorrenciaService;
+
+    @MockBean
+    TokenService tokenService;
+
+    @BeforeEach
+    public void autenticar() {
+        when(tokenService.validar("token")).thenReturn(1L);
+        when(usuarioService.obterReferencia(1L)).thenReturn(Usuario.builder().id(1L).build());
+    }
+
+    @Test
+    public void naoIncluirSobreLancamentoExistenteInformadoPeloCliente() throws Exception {
+        when(service.salvar(any(Lancamento.class)))
+                .thenAnswer(invocacao -> invocacao.<Lancamento>getArgument(0).toBuilder().id(100L).build());
+        // id e versão de um lançamento de outro usuário
+        LancamentoDTO dto = LancamentoDTO.builder().id(7L).versao(3L).descricao("Salário").mes(1).ano(2020)
+                .valor(BigDecimal.TEN).tipo("RECEITA").build();
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.post(API)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto)))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(100L));
+
+        ArgumentCaptor<Lancamento> incluido = ArgumentCaptor.forClass(Lancamento.class);
+        verify(service).salvar(incluido.capture());
+        assertThat(incluido.getValue().getId()).isNull();
+        assertThat(incluido.getValue().getVersao()).isNull();
+        assertThat(incluido.getValue().getUsuario().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void naoIncluirLoteSobreLancamentosExistentes() throws Exception {
+        when(service.salvarEmLote(any(Usuario.class), anyList()))
+                .thenAnswer(invocacao -> new ResultadoLote(invocacao.getArgument(1), Collections.emptyMap()));
+        LancamentoDTO existente = LancamentoDTO.builder().id(7L).versao(3L).descricao("Aluguel").mes(1).ano(2020)
+                .valor(BigDecimal.TEN).tipo("DESPESA").build();
+        LancamentoDTO novo = LancamentoDTO.builder().descricao("Salário").mes(1).ano(2020)
+                .valor(BigDecimal.TEN).tipo("RECEITA").build();
+        LoteLancamentoDTO lote = new LoteLancamentoDTO();
+        lote.setLancamentos(Arrays.asList(existente, novo));
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.post(API.concat("/lote"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(lote)))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        ArgumentCaptor<List<Lancamento>> incluidos = ArgumentCaptor.forClass(List.class);
+        verify(service).salvarEmLote(any(Usuario.class), incluidos.capture());
+        assertThat(incluidos.getValue()).hasSize(2)
+                .allSatisfy(lancamento -> assertThat(lancamento.getId()).isNull())
+                .allSatisfy(lancamento -> assertThat(lancamento.getVersao()).isNull());
+    }
+
+    @Test
+    public void exigirVersaoNaAtualizacao() throws Exception {
+        when(service.carregarPorId(7L)).thenReturn(Optional.of(lancamentoPersistido(StatusLancamento.PENDENTE)));
+        LancamentoDTO dto = LancamentoDTO.builder().descricao("Aluguel").mes(1).ano(2020)
+                .valor(BigDecimal.TEN).tipo("DESPESA").build();
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.put(API.concat("/7"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto)))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionRequired());
+
+        verify(service, never()).atualizar(any(Lancamento.class));
+    }
+
+    @Test
+    public void naoAlterarStatusNaAtualizacao() throws Exception {
+        when(service.carregarPorId(7L)).thenReturn(Optional.of(lancamentoPersistido(StatusLancamento.CANCELADO)));
+        LancamentoDTO dto = LancamentoDTO.builder().versao(3L).descricao("Aluguel").mes(1).ano(2020)
+                .valor(BigDecimal.TEN).tipo("DESPESA").status("EFETIVADO").build();
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.put(API.concat("/7"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto)))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verify(service, never()).atualizar(any(Lancamento.class));
+    }
+
+    private Lancamento lancamentoPersistido(StatusLancamento status) {
+        return Lancamento.builder().id(7L).versao(3L).descricao("Aluguel").mes(1).ano(2020).valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.DESPESA).status(status).usuario(Usuario.builder().id(1L).build()).build();
+    }
+}
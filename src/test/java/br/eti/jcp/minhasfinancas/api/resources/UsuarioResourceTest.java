@@ -1,34 +1,51 @@
 package br.eti.jcp.minhasfinancas.api.resources;
 
 import br.eti.jcp.minhasfinancas.api.dto.UsuarioDTO;
+import br.eti.jcp.minhasfinancas.api.security.ControleAdmissao;
+import br.eti.jcp.minhasfinancas.config.ExecutoresPersistencia;
 import br.eti.jcp.minhasfinancas.exceptions.AutenticacaoException;
 import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import br.eti.jcp.minhasfinancas.services.TokenService;
 import br.eti.jcp.minhasfinancas.services.UsuarioService;
+import br.eti.jcp.minhasfinancas.services.VersaoUsuarioService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = UsuarioResource.class)
 @AutoConfigureMockMvc
+@Import({ExecutoresPersistencia.class, ControleAdmissao.class, RespostaCondicional.class})
 public class UsuarioResourceTest {
 
     static final String API = "/api/usuarios";
@@ -43,6 +60,15 @@ public class UsuarioResourceTest {
     @MockBean
     LancamentoService lancamentoService;
 
+    @MockBean
+    TokenService tokenService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @SpyBean
+    ExecutoresPersistencia executores;
+
     @Test
     public void autenticarUsuario() throws Exception {
 
@@ -53,6 +79,7 @@ public class UsuarioResourceTest {
         Usuario usuario = Usuario.builder().id(1L).nome("Usuario").email(email).senha(senha).build();
 
         when(service.autenticar(email, senha)).thenReturn(usuario);
+        when(tokenService.gerar(usuario)).thenReturn("token");
 
         String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -66,7 +93,9 @@ public class UsuarioResourceTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+                .andExpect(MockMvcResultMatchers.jsonPath("token").value("token"))
+                .andExpect(MockMvcResultMatchers.jsonPath("senha").doesNotExist());
 
     }
 
@@ -142,4 +171,135 @@ public class UsuarioResourceTest {
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
     }
+
+    @Test
+    public void obterSaldoDoUsuarioDoToken() throws Exception {
+        when(tokenService.validar("token")).thenReturn(1L);
+        when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(BigDecimal.TEN);
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("10"));
+    }
+
+    @Test
+    public void obterSaldoComETagDaVersaoDoUsuario() throws Exception {
+        when(tokenService.validar("token")).thenReturn(1L);
+        when(versaoUsuarioService.obterVersao(1L)).thenReturn(7L);
+        when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(BigDecimal.TEN);
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-6\""))
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-7\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(MockMvcResultMatchers.content().string("10"));
+    }
+
+    @Test
+    public void naoConsultarSaldoComETagAtual() throws Exception {
+        when(tokenService.validar("token")).thenReturn(1L);
+        when(versaoUsuarioService.obterVersao(1L)).thenReturn(7L);
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-6\", \"1-7\""))
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-7\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        verify(lancamentoService, never()).obterSaldoPorUsuario(1L);
+    }
+
+    @Test
+    public void obterSaldoEmCbor() throws Exception {
+        when(tokenService.validar("token")).thenReturn(1L);
+        when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(new BigDecimal("10.50"));
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        byte[] corpo = mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(corpo, BigDecimal.class)).isEqualByComparingTo("10.50");
+    }
+
+    @Test
+    public void recusarSaldoAlemDaConcorrenciaDoUsuario() throws Exception {
+        when(tokenService.validar("token-7")).thenReturn(7L);
+        when(lancamentoService.obterSaldoPorUsuario(7L)).thenReturn(BigDecimal.TEN);
+
+        // sem o despacho assíncrono as requisições seguem em andamento e ocupam as 4 vagas do usuário
+        MvcResult[] emAndamento = new MvcResult[4];
+        for (int i = 0; i < emAndamento.length; i++) {
+            emAndamento[i] = mvc.perform(MockMvcRequestBuilders.get(API.concat("/7/saldo"))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer token-7"))
+                    .andReturn();
+        }
+
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/7/saldo")).header(HttpHeaders.AUTHORIZATION, "Bearer token-7"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        for (MvcResult resultado : emAndamento) {
+            mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+        MvcResult liberada = mvc.perform(MockMvcRequestBuilders.get(API.concat("/7/saldo"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token-7"))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(liberada))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    public void recusarSaldoComExecutorSaturado() throws Exception {
+        when(tokenService.validar("token")).thenReturn(1L);
+        doThrow(new TaskRejectedException("fila cheia")).when(executores).leitura(any());
+
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+        verify(lancamentoService, never()).obterSaldoPorUsuario(1L);
+    }
+
+    @Test
+    public void naoObterSaldoSemToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    public void naoObterSaldoComTokenInvalido() throws Exception {
+        when(tokenService.validar("token")).thenThrow(new AutenticacaoException("Token inválido."));
+
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    public void naoObterSaldoDeOutroUsuario() throws Exception {
+        when(tokenService.validar("token")).thenReturn(2L);
+
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        verify(lancamentoService, never()).obterSaldoPorUsuario(1L);
+    }
 }
@@ -0,0 +1,50 @@
+package br.eti.jcp.minhasfinancas.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ControleAdmissaoTest {
+
+    // uma requisição por segundo, rajada de duas e duas simultâneas por usuário
+    private final ControleAdmissao controle = new ControleAdmissao(1, 2, 2, 100);
+
+    @Test
+    public void recusarAlemDaRajadaComEsperaAteAProximaFicha() {
+        controle.admitir(1L).liberar();
+        controle.admitir(1L).liberar();
+
+        ControleAdmissao.Admissao recusada = controle.admitir(1L);
+
+        assertThat(recusada.isAdmitida()).isFalse();
+        assertThat(recusada.getEsperaSegundos()).isEqualTo(1);
+        assertThat(controle.admitir(2L).isAdmitida()).isTrue();
+    }
+
+    @Test
+    public void recusarAlemDaConcorrenciaAteLiberar() {
+        ControleAdmissao controle = new ControleAdmissao(1000, 1000, 2, 100);
+        ControleAdmissao.Admissao primeira = controle.admitir(1L);
+        controle.admitir(1L);
+
+        assertThat(controle.admitir(1L).isAdmitida()).isFalse();
+
+        primeira.liberar();
+        assertThat(controle.admitir(1L).isAdmitida()).isTrue();
+    }
+
+    @Test
+    public void contarAdmissoesPorResultado() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        controle.bindTo(registry);
+
+        controle.admitir(1L);
+        controle.admitir(1L);
+        controle.admitir(1L);
+
+        assertThat(registry.get("admissao.requisicoes").tag("resultado", "admitida").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("admissao.requisicoes").tag("resultado", "concorrencia").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("admissao.em.andamento").gauge().value()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,53 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ExecutoresPersistenciaTest {
+
+    // uma thread e fila de uma posição em cada executor
+    private final ExecutoresPersistencia executores = new ExecutoresPersistencia(1, 1, 1, 1, 1, 1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @AfterEach
+    public void encerrar() {
+        liberar.countDown();
+        executores.destroy();
+    }
+
+    @Test
+    public void recusarImediatamenteComAFilaCheia() {
+        executores.busca(this::aguardar);
+        executores.busca(this::aguardar);
+
+        Throwable erro = catchThrowable(() -> executores.busca(this::aguardar));
+
+        assertThat(erro).isInstanceOf(TaskRejectedException.class);
+    }
+
+    @Test
+    public void buscasSaturadasNaoBloqueiamLeituras() throws Exception {
+        executores.busca(this::aguardar);
+        executores.busca(this::aguardar);
+
+        CompletableFuture<String> saldo = executores.leitura(() -> "saldo");
+
+        assertThat(saldo.get()).isEqualTo("saldo");
+    }
+
+    private Object aguardar() {
+        try {
+            liberar.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.services.LancamentoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricasServicoAspectTest {
+
+    @Test
+    public void cronometrarMetodosDoServicoPorResultado() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LancamentoService alvo = mock(LancamentoService.class);
+        when(alvo.carregarPorId(1L)).thenReturn(Optional.empty());
+        doThrow(new RegraDeNegocioException("Informe uma descrição válida.")).when(alvo).validar(any());
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(alvo);
+        fabrica.addInterface(LancamentoService.class);
+        fabrica.addAspect(new MetricasServicoAspect(registry));
+        LancamentoService service = fabrica.getProxy();
+
+        service.carregarPorId(1L);
+        service.carregarPorId(1L);
+        catchThrowable(() -> service.validar(new Lancamento()));
+
+        assertThat(registry.get(MetricasServicoAspect.METRICA)
+                .tags("servico", "LancamentoService", "metodo", "carregarPorId", "excecao", "none")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get(MetricasServicoAspect.METRICA)
+                .tags("metodo", "validar", "excecao", "RegraDeNegocioException")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,88 @@
+package br.eti.jcp.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roteamento entre dois bancos H2 em memória, um como primário e outro como réplica.
+ */
+public class RoteamentoDataSourceTest {
+
+    private RoteamentoDataSource roteamento;
+
+    @AfterEach
+    public void encerrar() throws Exception {
+        roteamento.destroy();
+    }
+
+    @Test
+    public void enviarLeiturasParaAReplicaEEscritasParaOPrimario() {
+        roteamento = new RoteamentoDataSource(h2("primario"), Collections.singletonList(h2("replica")), null, 30);
+
+        assertThat(bancoDaTransacao(true)).isEqualTo("REPLICA");
+        assertThat(bancoDaTransacao(false)).isEqualTo("PRIMARIO");
+        assertThat(bancoSemTransacao()).isEqualTo("PRIMARIO");
+    }
+
+    @Test
+    public void lerDoPrimarioComAReplicaForaDoAr() {
+        HikariDataSource foraDoAr = h2("fora-do-ar");
+        foraDoAr.setJdbcUrl("jdbc:h2:tcp://localhost:1/fora-do-ar");
+        foraDoAr.setConnectionTimeout(250);
+        foraDoAr.setInitializationFailTimeout(-1);
+        roteamento = new RoteamentoDataSource(h2("primario"), List.of(foraDoAr, h2("replica")), null, 30);
+
+        List<String> bancos = List.of(bancoDaTransacao(true), bancoDaTransacao(true), bancoDaTransacao(true));
+
+        assertThat(bancos).containsOnly("REPLICA");
+        assertThat(roteamento.getReplicasDisponiveis()).isEqualTo(1);
+    }
+
+    @Test
+    public void afastarReplicaAtrasadaAteAlcancarOPrimario() {
+        HikariDataSource replica = h2("replica");
+        new JdbcTemplate(replica).execute("create table atraso (segundos int)");
+        new JdbcTemplate(replica).update("insert into atraso values (60)");
+        roteamento = new RoteamentoDataSource(h2("primario"), Collections.singletonList(replica),
+                "select segundos from atraso", 30);
+
+        roteamento.verificarReplicas();
+        String atrasada = bancoDaTransacao(true);
+        new JdbcTemplate(replica).update("update atraso set segundos = 2");
+        roteamento.verificarReplicas();
+        String emDia = bancoDaTransacao(true);
+
+        assertThat(atrasada).isEqualTo("PRIMARIO");
+        assertThat(emDia).isEqualTo("REPLICA");
+    }
+
+    private String bancoDaTransacao(boolean somenteLeitura) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(roteamento);
+        TransactionTemplate transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transacao.setReadOnly(somenteLeitura);
+        return transacao.execute(status -> new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+    }
+
+    private String bancoSemTransacao() {
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(roteamento)).queryForObject("select database()", String.class);
+    }
+
+    private static HikariDataSource h2(String nome) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("sa");
+        dataSource.setPoolName(nome);
+        return dataSource;
+    }
+}
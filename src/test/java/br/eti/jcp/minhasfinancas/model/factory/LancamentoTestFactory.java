@@ -4,6 +4,7 @@ import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
 import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
 import br.eti.jcp.minhasfinancas.model.repositories.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -11,10 +12,14 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class LancamentoTestFactory {
 
+    // o e-mail é único na base
+    private static final AtomicLong SEQUENCIA_EMAIL = new AtomicLong();
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
@@ -38,8 +43,13 @@ public class LancamentoTestFactory {
                 .build();
     }
 
+    public LancamentoResumo criarResumo(Long id, Integer ano, Integer mes) {
+        return new LancamentoResumo(id, "Um lancamento qualquer", mes, ano, BigDecimal.TEN, 1L,
+                TipoLancamento.RECEITA, StatusLancamento.PENDENTE, LocalDate.now(), 0L);
+    }
+
     private Usuario criarUsuario() {
-        Usuario usuario = Usuario.builder().nome("Usuario").email("usuario@email.com").senha("abdc123").build();
+        Usuario usuario = Usuario.builder().nome("Usuario").email("usuario" + SEQUENCIA_EMAIL.incrementAndGet() + "@email.com").senha("abdc123").build();
         if (Objects.nonNull(usuarioRepository)) {
             return usuarioRepository.save(usuario);
         } else {
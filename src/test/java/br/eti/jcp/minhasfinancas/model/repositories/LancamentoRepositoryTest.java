@@ -4,6 +4,7 @@ import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
 import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,9 +12,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -82,6 +86,110 @@ public class LancamentoRepositoryTest {
         assertThat(lancamentoEncontrado.isPresent()).isTrue();
     }
 
+    @Test
+    public void buscarPaginaAPartirDoCursor() {
+        Lancamento primeiro = criarEPersistirLancamento();
+        Usuario usuario = primeiro.getUsuario();
+        Lancamento segundo = criarEPersistirLancamento(usuario, 2020, 2, "Aluguel");
+        Lancamento terceiro = criarEPersistirLancamento(usuario, 2021, 1, "Aluguel");
+
+        List<LancamentoResumo> pagina = repository.buscarPagina(usuario.getId(), "%", null, null,
+                Integer.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE, PageRequest.of(0, 2));
+        assertThat(pagina).extracting(LancamentoResumo::getId).containsExactly(primeiro.getId(), segundo.getId());
+        assertThat(pagina.get(0).getUsuario()).isEqualTo(usuario.getId());
+
+        pagina = repository.buscarPagina(usuario.getId(), "%", null, null,
+                segundo.getAno(), segundo.getMes(), segundo.getId(), PageRequest.of(0, 2));
+        assertThat(pagina).extracting(LancamentoResumo::getId).containsExactly(terceiro.getId());
+
+        pagina = repository.buscarPagina(usuario.getId(), "%alug%", null, 2020,
+                Integer.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE, PageRequest.of(0, 2));
+        assertThat(pagina).extracting(LancamentoResumo::getId).containsExactly(segundo.getId());
+    }
+
+    @Test
+    public void buscarPorUsuarioEDescricaoSemDiferenciarMaiusculas() {
+        Lancamento aluguel = criarEPersistirLancamento();
+        Usuario usuario = aluguel.getUsuario();
+        aluguel.setDescricao("Aluguel 100% pago");
+        criarEPersistirLancamento(usuario, 2020, 2, "Mercado");
+
+        assertThat(repository.buscar(usuario.getId(), "%aluguel%", null, null))
+                .extracting(LancamentoResumo::getId).containsExactly(aluguel.getId());
+        assertThat(repository.buscar(usuario.getId(), "%100\\%%", 1, 2020))
+                .extracting(LancamentoResumo::getId).containsExactly(aluguel.getId());
+        assertThat(repository.buscar(usuario.getId(), "%", 2, null)).hasSize(1);
+        assertThat(repository.buscar(usuario.getId() + 1, "%", null, null)).isEmpty();
+    }
+
+    @Test
+    public void buscarSomenteEntreIdsDoIndiceDeDescricao() {
+        Lancamento luz = criarEPersistirLancamento();
+        Usuario usuario = luz.getUsuario();
+        luz.setDescricao("Conta de luz");
+        Lancamento agua = criarEPersistirLancamento(usuario, 2020, 2, "Conta de água");
+        entityManager.flush();
+
+        assertThat(repository.buscarPorIds(usuario.getId(), Arrays.asList(luz.getId(), agua.getId()), "%conta%", null, null))
+                .extracting(LancamentoResumo::getId).containsExactly(luz.getId(), agua.getId());
+        assertThat(repository.buscarPorIds(usuario.getId(), Arrays.asList(agua.getId()), "%conta%", null, 2020))
+                .extracting(LancamentoResumo::getId).containsExactly(agua.getId());
+        assertThat(repository.listarDescricoes(usuario.getId())).hasSize(2);
+    }
+
+    private Lancamento criarEPersistirLancamento(Usuario usuario, Integer ano, Integer mes, String descricao) {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setAno(ano);
+        lancamento.setMes(mes);
+        lancamento.setDescricao(descricao);
+        entityManager.persist(lancamento);
+        return lancamento;
+    }
+
+    @Test
+    public void atualizarStatusSomenteNaVersaoEStatusLidos() {
+        Lancamento lancamento = criarEPersistirLancamento();
+        entityManager.flush();
+        Long versao = lancamento.getVersao();
+
+        int comVersaoAntiga = repository.atualizarStatus(lancamento.getId(), versao + 1,
+                StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO);
+        int comStatusAntigo = repository.atualizarStatus(lancamento.getId(), versao,
+                StatusLancamento.CANCELADO, StatusLancamento.EFETIVADO);
+        int atualizados = repository.atualizarStatus(lancamento.getId(), versao,
+                StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO);
+
+        assertThat(comVersaoAntiga).isZero();
+        assertThat(comStatusAntigo).isZero();
+        assertThat(atualizados).isEqualTo(1);
+        Lancamento atualizado = entityManager.find(Lancamento.class, lancamento.getId());
+        assertThat(atualizado.getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+        assertThat(atualizado.getVersao()).isEqualTo(versao + 1);
+    }
+
+    @Test
+    public void bloquearSomenteLancamentosElegiveisParaMudancaDeStatus() {
+        Lancamento primeiro = criarEPersistirLancamento();
+        Usuario usuario = primeiro.getUsuario();
+        Lancamento segundo = criarEPersistirLancamento(usuario, 2020, 1, "Segundo");
+        criarEPersistirLancamento(usuario, 2020, 1, "Cancelado").setStatus(StatusLancamento.CANCELADO);
+        criarEPersistirLancamento(usuario, 2019, 1, "Outro ano");
+        entityManager.flush();
+
+        List<LancamentoResumo> bloco = repository.bloquearParaMudancaDeStatus(usuario.getId(),
+                StatusLancamento.EFETIVADO.origens(), null, 2020, primeiro.getId(), PageRequest.of(0, 10));
+        List<LancamentoResumo> porIds = repository.bloquearParaMudancaDeStatusPorIds(usuario.getId(),
+                Arrays.asList(primeiro.getId(), segundo.getId()), StatusLancamento.EFETIVADO.origens(), null, null);
+        int atualizados = repository.atualizarStatusPorIds(Arrays.asList(primeiro.getId(), segundo.getId()),
+                StatusLancamento.EFETIVADO);
+
+        assertThat(bloco).extracting(LancamentoResumo::getId).containsExactly(segundo.getId());
+        assertThat(porIds).extracting(LancamentoResumo::getId).containsExactly(primeiro.getId(), segundo.getId());
+        assertThat(atualizados).isEqualTo(2);
+        assertThat(entityManager.find(Lancamento.class, segundo.getId()).getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+    }
+
     private Lancamento criarEPersistirLancamento() {
         Lancamento lancamento = factory.criarLancamento();
         entityManager.persist(lancamento);
@@ -0,0 +1,146 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confere, no plano do H2, que as consultas geradas pelos repositórios usam os índices das migrações:
+ * uma mudança de consulta ou de índice que troque a leitura pelo índice por uma varredura da tabela
+ * quebra o build.
+ * <p>
+ * Quando a consulta filtra só pelo usuário, o H2 prefere o índice de {@code id_usuario} que cria para a
+ * chave estrangeira, menor que o composto; nesses casos basta que o usuário seja localizado por um índice.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "br.eti.jcp.minhasfinancas.model.repositories.PlanoConsultasTest$CapturaSql")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PlanoConsultasTest {
+
+    private static final String VARREDURA = "tableScan";
+    private static final String INDICE_PERIODO = "IDX_LANCAMENTO_USUARIO_PERIODO";
+    // condição resolvida por índice, como o H2 a mostra após a tabela: /* FINANCAS.INDICE: ID_USUARIO = ?1 */
+    private static final String USUARIO_POR_INDICE = "/\\* FINANCAS\\.\\w+: ID_USUARIO = \\?1 \\*/";
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    ResumoMensalRepository resumoMensalRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void preparar() {
+        // o custo estimado pelo H2 depende da quantidade de linhas: com a tabela vazia os índices empatam
+        jdbcTemplate.update("insert into financas.usuario (nome, email, senha) values ('Plano', 'plano@email.com', '1234')");
+        Long idUsuario = jdbcTemplate.queryForObject("select id from financas.usuario where email = 'plano@email.com'", Long.class);
+        List<Object[]> lancamentos = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            lancamentos.add(new Object[]{id, 1 + id % 12, 2020 + id % 3, idUsuario,
+                    id % 2 == 0 ? "RECEITA" : "DESPESA", id % 3 == 0 ? "EFETIVADO" : "PENDENTE"});
+        }
+        jdbcTemplate.batchUpdate("insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status) "
+                + "values (?, 'Plano', ?, ?, ?, 10, ?, ?)", lancamentos);
+        CapturaSql.COMANDOS.clear();
+    }
+
+    @Test
+    public void buscaLocalizaUsuarioPorIndice() {
+        lancamentoRepository.buscar(1L, "%", null, null);
+
+        assertThat(planoDoUltimoComando()).containsPattern(USUARIO_POR_INDICE).doesNotContain(VARREDURA);
+    }
+
+    @Test
+    public void paginaPorCursorLocalizaUsuarioPorIndice() {
+        lancamentoRepository.buscarPagina(1L, "%", 1, 2020, 2020, 1, 0L, PageRequest.of(0, 50));
+
+        assertThat(planoDoUltimoComando()).containsPattern(USUARIO_POR_INDICE).doesNotContain(VARREDURA);
+    }
+
+    @Test
+    public void exportacaoLocalizaUsuarioPorIndice() {
+        try (Stream<LancamentoResumo> lancamentos = lancamentoRepository.exportarPorUsuario(1L)) {
+            lancamentos.count();
+        }
+
+        assertThat(planoDoUltimoComando()).containsPattern(USUARIO_POR_INDICE).doesNotContain(VARREDURA);
+    }
+
+    @Test
+    public void resumoDeUmMesUsaIndiceDePeriodo() {
+        lancamentoRepository.calcularResumoMensal(1L, 2020, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+
+        assertThat(planoDoUltimoComando()).contains(INDICE_PERIODO).doesNotContain(VARREDURA);
+    }
+
+    @Test
+    public void saldoPorTipoUsaIndiceDeTipo() {
+        lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(1L, TipoLancamento.RECEITA);
+
+        assertThat(planoDoUltimoComando()).contains("IDX_LANCAMENTO_USUARIO_TIPO").doesNotContain(VARREDURA);
+    }
+
+    @Test
+    public void pesquisasPorEmailUsamIndiceUnico() {
+        usuarioRepository.existsByEmail("plano@email.com");
+        String planoExistencia = planoDoUltimoComando();
+        usuarioRepository.findByEmail("plano@email.com");
+        String planoPesquisa = planoDoUltimoComando();
+
+        assertThat(planoExistencia).contains("UK_USUARIO_EMAIL").doesNotContain(VARREDURA);
+        assertThat(planoPesquisa).contains("UK_USUARIO_EMAIL").doesNotContain(VARREDURA);
+    }
+
+    @Test
+    public void resumoDoAnoUsaChavePrimaria() {
+        resumoMensalRepository.buscarPorUsuarioEAno(1L, 2020);
+
+        assertThat(planoDoUltimoComando()).contains("ID_USUARIO = ?").contains("ANO = ?")
+                .doesNotContain(VARREDURA);
+    }
+
+    private String planoDoUltimoComando() {
+        String sql = CapturaSql.COMANDOS.get(CapturaSql.COMANDOS.size() - 1);
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    /**
+     * Registra o SQL que o Hibernate envia ao banco, para que o plano seja o da consulta realmente gerada.
+     */
+    public static class CapturaSql implements StatementInspector {
+
+        static final List<String> COMANDOS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            COMANDOS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensalId;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ResumoMensalRepositoryTest {
+
+    @Autowired
+    private ResumoMensalRepository repository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private LancamentoTestFactory factory;
+
+    @BeforeEach
+    public void initTest() {
+        factory = new LancamentoTestFactory(usuarioRepository);
+    }
+
+    @Test
+    public void somarDeltaAoGrupoExistente() {
+        ResumoMensalId id = new ResumoMensalId(1L, 2020, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE);
+        entityManager.persist(new ResumoMensal(id, 2L, new BigDecimal("20")));
+        entityManager.flush();
+
+        int atualizados = repository.somar(id, 1L, BigDecimal.TEN);
+        entityManager.clear();
+
+        assertThat(atualizados).isEqualTo(1);
+        ResumoMensal resumo = repository.findById(id).get();
+        assertThat(resumo.getQuantidade()).isEqualTo(3L);
+        assertThat(resumo.getTotal()).isEqualByComparingTo("30");
+    }
+
+    @Test
+    public void buscarGruposDoAnoComLancamentos() {
+        entityManager.persist(new ResumoMensal(1L, 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 1L, BigDecimal.ONE));
+        entityManager.persist(new ResumoMensal(1L, 2020, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 1L, BigDecimal.TEN));
+        entityManager.persist(new ResumoMensal(1L, 2020, 3, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 0L, BigDecimal.ZERO));
+        entityManager.persist(new ResumoMensal(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 1L, BigDecimal.TEN));
+
+        List<ResumoMensal> resumos = repository.buscarPorUsuarioEAno(1L, 2020);
+
+        assertThat(resumos).extracting(resumo -> resumo.getId().getMes()).containsExactly(1, 2);
+    }
+
+    @Test
+    public void calcularResumosAgrupadosAPartirDosLancamentos() {
+        Lancamento receita = factory.criarLancamento();
+        entityManager.persist(receita);
+        Lancamento outraReceita = factory.criarLancamento();
+        outraReceita.setUsuario(receita.getUsuario());
+        entityManager.persist(outraReceita);
+        Lancamento despesa = factory.criarLancamento();
+        despesa.setUsuario(receita.getUsuario());
+        despesa.setTipo(TipoLancamento.DESPESA);
+        entityManager.persist(despesa);
+        Long idUsuario = receita.getUsuario().getId();
+
+        List<ResumoMensal> resumos = lancamentoRepository.calcularResumosMensais(idUsuario);
+
+        assertThat(resumos).hasSize(2);
+        ResumoMensal resumoReceita = lancamentoRepository.calcularResumoMensal(idUsuario, 2020, 1,
+                TipoLancamento.RECEITA, StatusLancamento.PENDENTE).get();
+        assertThat(resumoReceita.getQuantidade()).isEqualTo(2L);
+        assertThat(resumoReceita.getTotal()).isEqualByComparingTo("20");
+    }
+}
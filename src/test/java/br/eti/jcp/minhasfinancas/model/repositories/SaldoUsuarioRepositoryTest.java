@@ -0,0 +1,82 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.SaldoUsuario;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SaldoUsuarioRepositoryTest {
+
+    @Autowired
+    private SaldoUsuarioRepository repository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private LancamentoTestFactory factory;
+
+    @BeforeEach
+    public void initTest() {
+        factory = new LancamentoTestFactory(usuarioRepository);
+    }
+
+    @Test
+    public void somarDeltaAoSaldoExistente() {
+        entityManager.persist(new SaldoUsuario(1L, BigDecimal.TEN));
+        entityManager.flush();
+
+        int atualizados = repository.somar(1L, new BigDecimal("-2.5"));
+        entityManager.clear();
+
+        assertThat(atualizados).isEqualTo(1);
+        assertThat(repository.findById(1L).get().getValor()).isEqualByComparingTo("7.5");
+    }
+
+    @Test
+    public void naoSomarSaldoInexistente() {
+        assertThat(repository.somar(1L, BigDecimal.TEN)).isZero();
+    }
+
+    @Test
+    public void calcularSaldosAgrupadosPorUsuario() {
+        Lancamento receita = factory.criarLancamento();
+        entityManager.persist(receita);
+        Lancamento despesa = factory.criarLancamento();
+        despesa.setUsuario(receita.getUsuario());
+        despesa.setTipo(TipoLancamento.DESPESA);
+        despesa.setValor(BigDecimal.ONE);
+        entityManager.persist(despesa);
+
+        List<SaldoUsuario> saldos = lancamentoRepository.calcularSaldos(TipoLancamento.RECEITA)
+                .collect(Collectors.toList());
+
+        assertThat(saldos).hasSize(1);
+        assertThat(saldos.get(0).getIdUsuario()).isEqualTo(receita.getUsuario().getId());
+        assertThat(saldos.get(0).getValor()).isEqualByComparingTo("9");
+    }
+}
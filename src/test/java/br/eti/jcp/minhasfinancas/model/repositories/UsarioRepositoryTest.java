@@ -1,22 +1,30 @@
 package br.eti.jcp.minhasfinancas.model.repositories;
 
+import br.eti.jcp.minhasfinancas.config.CacheSegundoNivelConfig;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.Optional;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CacheSegundoNivelConfig.class)
 public class UsarioRepositoryTest {
 
     @Autowired
@@ -25,6 +33,9 @@ public class UsarioRepositoryTest {
     @Autowired
     TestEntityManager entityManager;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     @Test
     public void verificarAExistenciaDeUmEmail() {
         Usuario usuario = getUsuario();
@@ -59,6 +70,28 @@ public class UsarioRepositoryTest {
         Assertions.assertThat(usuarioOptional.isPresent()).isFalse();
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void pesquisaPorEmailRepetidaVemDoCache() {
+        // fora de transação: o cache de consultas é ignorado enquanto a tabela tem alterações não confirmadas
+        Usuario usuario = repository.save(getUsuario());
+        try {
+            Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            repository.findByEmail("usuario@email.com");
+            estatisticas.clear();
+
+            Optional<Usuario> usuarioOptional = repository.findByEmail("usuario@email.com");
+
+            Assertions.assertThat(usuarioOptional).contains(usuario);
+            Assertions.assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(1);
+            Assertions.assertThat(estatisticas.getDomainDataRegionStatistics(Usuario.REGIAO_CACHE).getHitCount())
+                    .isEqualTo(1);
+            Assertions.assertThat(estatisticas.getPrepareStatementCount()).isZero();
+        } finally {
+            repository.delete(usuario);
+        }
+    }
+
     private Usuario getUsuario() {
         return Usuario.builder().nome("Usuario").email("usuario@email.com").senha("1234").build();
     }
@@ -0,0 +1,56 @@
+package br.eti.jcp.minhasfinancas.model.repositories;
+
+import br.eti.jcp.minhasfinancas.model.entity.VersaoUsuario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class VersaoUsuarioRepositoryTest {
+
+    @Autowired
+    VersaoUsuarioRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    public void incrementarVersaoDoUsuario() {
+        entityManager.persistAndFlush(new VersaoUsuario(1L, 3L));
+        entityManager.persistAndFlush(new VersaoUsuario(2L, 3L));
+
+        int atualizados = repository.incrementar(1L);
+
+        entityManager.clear();
+        assertThat(atualizados).isEqualTo(1);
+        assertThat(repository.findById(1L)).map(VersaoUsuario::getVersao).contains(4L);
+        assertThat(repository.findById(2L)).map(VersaoUsuario::getVersao).contains(3L);
+    }
+
+    @Test
+    public void naoIncrementarUsuarioSemVersao() {
+        assertThat(repository.incrementar(99L)).isZero();
+    }
+
+    @Test
+    public void criarSomenteVersaoInexistente() {
+        entityManager.persistAndFlush(new VersaoUsuario(1L, 3L));
+
+        assertThat(repository.criar(1L)).isZero();
+        assertThat(repository.criar(2L)).isEqualTo(1);
+
+        entityManager.clear();
+        assertThat(repository.findById(1L)).map(VersaoUsuario::getVersao).contains(3L);
+        assertThat(repository.findById(2L)).map(VersaoUsuario::getVersao).contains(1L);
+    }
+}
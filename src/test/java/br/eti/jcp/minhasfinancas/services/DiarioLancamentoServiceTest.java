@@ -0,0 +1,119 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.PosicaoDiario;
+import br.eti.jcp.minhasfinancas.model.entity.RegistroDiario;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.enums.OperacaoDiario;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.services.impl.DiarioLancamentoServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+// transações abaixo de 5 já terminaram; o H2 grava todos os registros com transação 0
+@DataJpaTest(properties = "minhasfinancas.diario.consulta-horizonte=select 5")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DiarioLancamentoServiceImpl.class)
+public class DiarioLancamentoServiceTest {
+
+    @Autowired
+    DiarioLancamentoService service;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void deltasDoUsuarioReproduzemOsLancamentos() {
+        Lancamento lancamento = lancamento(1L, 10L, "100.00");
+        service.registrarInclusao(lancamento);
+        Lancamento alterado = lancamento.toBuilder().valor(new BigDecimal("80.00")).mes(2).build();
+        service.registrarAlteracao(lancamento, alterado);
+        service.registrarMudancaDeStatus(alterado, StatusLancamento.EFETIVADO);
+        service.registrarInclusao(lancamento(2L, 10L, "30.00"));
+        service.registrarExclusao(lancamento(2L, 10L, "30.00"));
+        service.registrarInclusao(lancamento(3L, 20L, "5.00"));
+
+        List<RegistroDiario> registros = service.buscarPorUsuario(10L, PosicaoDiario.inicio(), 100);
+
+        assertThat(registros).hasSize(7).extracting(RegistroDiario::getOperacao).containsExactly(
+                OperacaoDiario.INCLUSAO, OperacaoDiario.ALTERACAO, OperacaoDiario.ALTERACAO, OperacaoDiario.STATUS,
+                OperacaoDiario.STATUS, OperacaoDiario.INCLUSAO, OperacaoDiario.EXCLUSAO);
+        assertThat(registros.stream().map(RegistroDiario::getValor).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo("80.00");
+        assertThat(registros.stream().mapToInt(RegistroDiario::getQuantidade).sum()).isEqualTo(1);
+        // o grupo efetivado de fevereiro é o único que sobra
+        assertThat(registros.stream()
+                .filter(r -> r.getMes() == 2 && r.getStatus() == StatusLancamento.EFETIVADO)
+                .map(RegistroDiario::getValor).reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualByComparingTo("80.00");
+    }
+
+    @Test
+    public void consumidorProcessaAPartirDaPosicaoGravada() {
+        service.registrarInclusao(lancamento(1L, 10L, "10.00"));
+        service.registrarInclusao(lancamento(2L, 10L, "20.00"));
+        service.registrarInclusao(lancamento(3L, 20L, "30.00"));
+        List<RegistroDiario> processados = new ArrayList<>();
+
+        int primeiroBloco = service.processar("saldo", 2, processados::addAll);
+        int segundoBloco = service.processar("saldo", 2, processados::addAll);
+        int emDia = service.processar("saldo", 2, processados::addAll);
+
+        assertThat(primeiroBloco).isEqualTo(2);
+        assertThat(segundoBloco).isEqualTo(1);
+        assertThat(emDia).isZero();
+        assertThat(processados).extracting(RegistroDiario::getIdLancamento).containsExactly(1L, 2L, 3L);
+        assertThat(service.obterPosicao("saldo")).isEqualTo(PosicaoDiario.de(processados.get(2)));
+        assertThat(service.obterPosicao("exportacao")).isEqualTo(PosicaoDiario.inicio());
+    }
+
+    @Test
+    public void consumidorLeNaOrdemDasTransacoesESoAbaixoDoHorizonte() {
+        // a transação 3 gravou o id menor, mas a 2 o maior; a 5 ainda não terminou
+        registrar(1L, 3);
+        registrar(2L, 2);
+        registrar(3L, 5);
+        List<RegistroDiario> processados = new ArrayList<>();
+
+        int entregues = service.processar("ordem", 10, processados::addAll);
+
+        assertThat(entregues).isEqualTo(2);
+        assertThat(processados).extracting(RegistroDiario::getIdLancamento).containsExactly(2L, 1L);
+        assertThat(service.obterPosicao("ordem")).isEqualTo(PosicaoDiario.de(processados.get(1)));
+    }
+
+    private void registrar(Long idLancamento, long transacao) {
+        jdbcTemplate.update("insert into financas.diario_lancamento (id_usuario, id_lancamento, operacao, ano, mes, "
+                + "tipo, status, quantidade, valor, data_registro, id_transacao) "
+                + "values (10, ?, 'INCLUSAO', 2020, 1, 'RECEITA', 'PENDENTE', 1, 10.00, current_timestamp, ?)",
+                idLancamento, transacao);
+    }
+
+    private static Lancamento lancamento(Long id, Long idUsuario, String valor) {
+        return Lancamento.builder()
+                .id(id)
+                .usuario(Usuario.builder().id(idUsuario).build())
+                .ano(2020)
+                .mes(1)
+                .descricao("Lançamento " + id)
+                .valor(new BigDecimal(valor))
+                .tipo(TipoLancamento.RECEITA)
+                .status(StatusLancamento.PENDENTE)
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.services.impl.IndiceDescricaoMemoria;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compara a latência da busca por trecho da descrição usando o índice de trigramas com a varredura
+ * completa equivalente a {@code lower(descricao) like '%termo%'} sem índice, conforme o volume cresce: a partir
+ * de {@value #VOLUME_COMPARADO} lançamentos o p95 do índice não pode passar do p50 da varredura.
+ * Excluído da suíte padrão; executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class IndiceDescricaoBenchmarkTest {
+
+    private static final int[] QUANTIDADES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int BUSCAS = 200;
+    private static final int VOLUME_COMPARADO = 100_000;
+    private static final String[] PALAVRAS = {"conta", "luz", "agua", "gas", "mercado", "salario", "aluguel",
+            "farmacia", "escola", "internet", "telefone", "combustivel", "restaurante", "cinema", "viagem"};
+
+    @Test
+    public void compararIndiceComVarreduraCompleta() {
+        for (int quantidade : QUANTIDADES) {
+            Random random = new Random(quantidade);
+            List<Object[]> linhas = new ArrayList<>(quantidade);
+            List<String> descricoes = new ArrayList<>(quantidade);
+            for (long id = 0; id < quantidade; id++) {
+                String descricao = PALAVRAS[random.nextInt(PALAVRAS.length)] + " " +
+                        PALAVRAS[random.nextInt(PALAVRAS.length)] + " " + random.nextInt(100_000);
+                linhas.add(new Object[]{id, descricao});
+                descricoes.add(descricao.toLowerCase());
+            }
+            LancamentoRepository repository = mock(LancamentoRepository.class);
+            when(repository.listarDescricoes(1L)).thenReturn(linhas);
+            IndiceDescricao indice = new IndiceDescricaoMemoria(repository, 1, 3600);
+            indice.buscar(1L, "aquecimento");
+
+            String[] termos = new String[BUSCAS];
+            for (int i = 0; i < BUSCAS; i++) {
+                termos[i] = String.valueOf(random.nextInt(100_000));
+            }
+            long[] tempoIndice = new long[BUSCAS];
+            long[] tempoVarredura = new long[BUSCAS];
+            for (int i = 0; i < BUSCAS; i++) {
+                long inicio = System.nanoTime();
+                Set<Long> encontrados = indice.buscar(1L, termos[i]).orElseThrow();
+                tempoIndice[i] = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                Set<Long> varridos = new HashSet<>();
+                for (int id = 0; id < descricoes.size(); id++) {
+                    if (descricoes.get(id).contains(termos[i])) {
+                        varridos.add((long) id);
+                    }
+                }
+                tempoVarredura[i] = System.nanoTime() - inicio;
+                assertThat(encontrados).isEqualTo(varridos);
+            }
+            if (quantidade >= VOLUME_COMPARADO) {
+                assertThat(percentil(tempoIndice, 95))
+                        .as("p95 do índice com %d lançamentos", quantidade)
+                        .isLessThanOrEqualTo(percentil(tempoVarredura, 50));
+            }
+        }
+    }
+
+    private static long percentil(long[] tempos, int percentil) {
+        long[] ordenados = tempos.clone();
+        Arrays.sort(ordenados);
+        return ordenados[(ordenados.length - 1) * percentil / 100];
+    }
+}
@@ -0,0 +1,93 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.services.impl.IndiceDescricaoMemoria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class IndiceDescricaoMemoriaTest {
+
+    @MockBean
+    LancamentoRepository repository;
+
+    IndiceDescricao indice;
+
+    private LancamentoTestFactory factory = new LancamentoTestFactory();
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndiceDescricaoMemoria(repository, 100, 3600);
+        when(repository.listarDescricoes(1L)).thenReturn(Arrays.asList(
+                new Object[]{1L, "Conta de Luz"},
+                new Object[]{2L, "Conta de Água"},
+                new Object[]{3L, "Salário"}));
+    }
+
+    @Test
+    public void buscarPorTrechoDaDescricaoSemDiferenciarMaiusculas() {
+        assertThat(indice.buscar(1L, "CONTA DE")).hasValueSatisfying(ids -> assertThat(ids).containsOnly(1L, 2L));
+        assertThat(indice.buscar(1L, "luz")).hasValueSatisfying(ids -> assertThat(ids).containsOnly(1L));
+        assertThat(indice.buscar(1L, "ri")).hasValueSatisfying(ids -> assertThat(ids).containsOnly(3L));
+        assertThat(indice.buscar(1L, "aluguel")).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    @Test
+    public void carregarIndiceDoUsuarioUmaUnicaVez() {
+        indice.buscar(1L, "conta");
+        indice.buscar(1L, "luz");
+
+        verify(repository, times(1)).listarDescricoes(1L);
+    }
+
+    @Test
+    public void manterIndiceAtualizadoComAlteracoes() {
+        indice.buscar(1L, "conta");
+
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setId(4L);
+        lancamento.setDescricao("Conta de Gás");
+        indice.registrar(lancamento);
+        assertThat(indice.buscar(1L, "conta")).hasValueSatisfying(ids -> assertThat(ids).containsOnly(1L, 2L, 4L));
+
+        lancamento.setDescricao("Mercado");
+        indice.registrar(lancamento);
+        assertThat(indice.buscar(1L, "conta")).hasValueSatisfying(ids -> assertThat(ids).containsOnly(1L, 2L));
+
+        indice.remover(lancamento);
+        assertThat(indice.buscar(1L, "mercado")).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    @Test
+    public void aplicarAlteracaoConfirmadaDuranteACargaDoIndice() throws Exception {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setId(4L);
+        lancamento.setDescricao("Conta de Gás");
+        Thread commit = new Thread(() -> indice.registrar(lancamento));
+        // a carga lê as descrições antes do commit do lançamento 4, que termina enquanto ela monta o índice
+        when(repository.listarDescricoes(1L)).thenAnswer(invocacao -> {
+            commit.start();
+            commit.join(200);
+            return Arrays.<Object[]>asList(new Object[]{1L, "Conta de Luz"});
+        });
+
+        indice.buscar(1L, "luz");
+        commit.join(5000);
+
+        assertThat(indice.buscar(1L, "conta")).hasValueSatisfying(ids -> assertThat(ids).containsOnly(1L, 4L));
+    }
+}
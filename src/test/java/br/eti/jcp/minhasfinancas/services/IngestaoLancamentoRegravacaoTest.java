@@ -0,0 +1,117 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.model.repositories.UsuarioRepository;
+import br.eti.jcp.minhasfinancas.services.impl.IngestaoLancamentoServiceImpl;
+import br.eti.jcp.minhasfinancas.services.impl.LancamentoServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Regravação um a um com o {@link LancamentoServiceImpl} e o JPA de verdade: o rollback do lote deixa nos
+ * lançamentos o id e a versão do flush desfeito, que não podem chegar à nova tentativa.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LancamentoServiceImpl.class)
+// a gravação roda na thread da ingestão, em transações próprias que precisam ver o usuário já confirmado
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IngestaoLancamentoRegravacaoTest {
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    SaldoService saldoService;
+
+    @MockBean
+    IndiceDescricao indiceDescricao;
+
+    @MockBean
+    ResumoMensalService resumoMensalService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @MockBean
+    DiarioLancamentoService diarioService;
+
+    private IngestaoLancamentoServiceImpl service;
+    private Lancamento valido;
+    private Lancamento comErro;
+
+    @BeforeEach
+    public void iniciar() {
+        LancamentoTestFactory factory = new LancamentoTestFactory(usuarioRepository);
+        valido = factory.criarLancamento();
+        comErro = factory.criarLancamento();
+        service = new IngestaoLancamentoServiceImpl(lancamentoService, transactionManager, 10, 2, 60000, 30000);
+        service.start();
+    }
+
+    @AfterEach
+    public void encerrar() {
+        service.stop();
+        for (Usuario usuario : List.of(valido.getUsuario(), comErro.getUsuario())) {
+            jdbcTemplate.update("delete from financas.lancamento where id_usuario = ?", usuario.getId());
+            usuarioRepository.deleteById(usuario.getId());
+        }
+    }
+
+    @Test
+    public void regravarComOIdDaLinhaGravada() throws Exception {
+        // o grupo do segundo usuário falha depois do flush do primeiro, desfazendo o lote inteiro
+        Long idUsuarioComErro = comErro.getUsuario().getId();
+        doThrow(new IllegalStateException("Falha na gravação")).when(saldoService).registrarInclusoes(
+                argThat(lancamentos -> lancamentos.get(0).getUsuario().getId().equals(idUsuarioComErro)));
+
+        CompletableFuture<Lancamento> gravacaoValido = service.enfileirar(valido);
+        CompletableFuture<Lancamento> gravacaoComErro = service.enfileirar(comErro);
+
+        Lancamento gravado = gravacaoValido.get(5, TimeUnit.SECONDS);
+        List<Long> ids = jdbcTemplate.queryForList("select id from financas.lancamento where id_usuario = ?",
+                Long.class, valido.getUsuario().getId());
+        assertThat(ids).containsExactly(gravado.getId());
+        assertThat(gravado.getVersao()).isZero();
+        verify(indiceDescricao).registrar(argThat(lancamento -> gravado.getId().equals(lancamento.getId())));
+        assertThat(catchThrowable(() -> gravacaoComErro.get(5, TimeUnit.SECONDS)))
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,184 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.services.impl.IngestaoLancamentoServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IngestaoLancamentoServiceTest {
+
+    private final LancamentoService lancamentoService = mock(LancamentoService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final LancamentoTestFactory factory = new LancamentoTestFactory();
+    private IngestaoLancamentoServiceImpl service;
+
+    @AfterEach
+    public void encerrar() {
+        service.stop();
+    }
+
+    @Test
+    public void gravarPendentesDeVariosUsuariosEmUmCommit() throws Exception {
+        // o lote fecha pela quantidade, sem esperar o tempo máximo
+        iniciar(10, 3, 60000);
+        salvarTodos();
+        Lancamento primeiro = lancamento(1L);
+        Lancamento segundo = lancamento(2L);
+        Lancamento terceiro = lancamento(1L);
+
+        CompletableFuture<Lancamento> gravacaoPrimeiro = service.enfileirar(primeiro);
+        CompletableFuture<Lancamento> gravacaoSegundo = service.enfileirar(segundo);
+        CompletableFuture<Lancamento> gravacaoTerceiro = service.enfileirar(terceiro);
+
+        assertThat(gravacaoPrimeiro.get(5, TimeUnit.SECONDS)).isSameAs(primeiro);
+        assertThat(gravacaoSegundo.get(5, TimeUnit.SECONDS)).isSameAs(segundo);
+        assertThat(gravacaoTerceiro.get(5, TimeUnit.SECONDS)).isSameAs(terceiro);
+        verify(transactionManager, times(1)).commit(any());
+        verify(lancamentoService, times(1)).salvarEmLote(primeiro.getUsuario(), List.of(primeiro, terceiro));
+        verify(lancamentoService, times(1)).salvarEmLote(segundo.getUsuario(), List.of(segundo));
+    }
+
+    @Test
+    public void gravarLoteIncompletoAoFimDaEspera() throws Exception {
+        iniciar(10, 100, 10);
+        salvarTodos();
+        Lancamento lancamento = lancamento(1L);
+
+        assertThat(service.enfileirar(lancamento).get(5, TimeUnit.SECONDS)).isSameAs(lancamento);
+    }
+
+    @Test
+    public void naoEnfileirarLancamentoInvalido() {
+        iniciar(10, 1, 10);
+        Lancamento lancamento = lancamento(1L);
+        doThrow(new RegraDeNegocioException("Informe um valor válido.")).when(lancamentoService).validar(lancamento);
+
+        Throwable erro = catchThrowable(() -> service.enfileirar(lancamento));
+
+        assertThat(erro).isInstanceOf(RegraDeNegocioException.class);
+        verify(lancamentoService, never()).salvarEmLote(any(Usuario.class), anyList());
+    }
+
+    @Test
+    public void recusarComAFilaCheia() throws Exception {
+        iniciar(1, 1, 10);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch gravando = new CountDownLatch(1);
+        when(lancamentoService.salvarEmLote(any(Usuario.class), anyList())).thenAnswer(invocacao -> {
+            gravando.countDown();
+            liberar.await();
+            return new ResultadoLote(invocacao.getArgument(1), Collections.emptyMap());
+        });
+        CompletableFuture<Lancamento> emGravacao = service.enfileirar(lancamento(1L));
+        gravando.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Lancamento> naFila = service.enfileirar(lancamento(1L));
+
+        Throwable erro = catchThrowable(() -> service.enfileirar(lancamento(1L)));
+
+        assertThat(erro).isInstanceOf(TaskRejectedException.class);
+        liberar.countDown();
+        emGravacao.get(5, TimeUnit.SECONDS);
+        naFila.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void regravarUmAUmQuandoOLoteFalha() throws Exception {
+        iniciar(10, 2, 60000);
+        Lancamento valido = lancamento(1L);
+        Lancamento comErro = lancamento(1L);
+        comErro.setDescricao("Falha na gravação");
+        when(lancamentoService.salvarEmLote(any(Usuario.class), anyList())).thenAnswer(invocacao -> {
+            List<Lancamento> lancamentos = invocacao.getArgument(1);
+            if (lancamentos.contains(comErro)) {
+                throw new IllegalStateException("Falha na gravação");
+            }
+            return new ResultadoLote(lancamentos, Collections.emptyMap());
+        });
+
+        CompletableFuture<Lancamento> gravacaoValido = service.enfileirar(valido);
+        CompletableFuture<Lancamento> gravacaoComErro = service.enfileirar(comErro);
+
+        // a nova tentativa grava uma cópia sem id e versão
+        assertThat(gravacaoValido.get(5, TimeUnit.SECONDS)).isEqualTo(valido);
+        Throwable erro = catchThrowable(() -> gravacaoComErro.get(5, TimeUnit.SECONDS));
+        assertThat(erro).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    public void gravarPendentesAoEncerrar() throws Exception {
+        iniciar(10, 100, 60000);
+        salvarTodos();
+
+        CompletableFuture<Lancamento> gravacao = service.enfileirar(lancamento(1L));
+        // o lote já está aberto, aguardando mais pendentes
+        Thread.sleep(200);
+        service.stop();
+
+        assertThat(gravacao).isCompleted();
+        assertThat(catchThrowable(() -> service.enfileirar(lancamento(1L)))).isInstanceOf(TaskRejectedException.class);
+    }
+
+    @Test
+    public void concluirComErroOQueNaoFoiGravadoNoPrazoDeEncerramento() throws Exception {
+        service = new IngestaoLancamentoServiceImpl(lancamentoService, transactionManager, 10, 1, 10, 100);
+        service.start();
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch gravando = new CountDownLatch(1);
+        when(lancamentoService.salvarEmLote(any(Usuario.class), anyList())).thenAnswer(invocacao -> {
+            gravando.countDown();
+            liberar.await();
+            return new ResultadoLote(invocacao.getArgument(1), Collections.emptyMap());
+        });
+        CompletableFuture<Lancamento> emGravacao = service.enfileirar(lancamento(1L));
+        gravando.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Lancamento> naFila = service.enfileirar(lancamento(1L));
+
+        service.stop();
+
+        assertThat(catchThrowable(emGravacao::get)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable(naFila::get)).hasCauseInstanceOf(TaskRejectedException.class);
+        liberar.countDown();
+    }
+
+    private void iniciar(int capacidadeFila, int tamanhoLote, long esperaMillis) {
+        service = new IngestaoLancamentoServiceImpl(lancamentoService, transactionManager, capacidadeFila, tamanhoLote,
+                esperaMillis, 30000);
+        service.start();
+    }
+
+    private void salvarTodos() {
+        when(lancamentoService.salvarEmLote(any(Usuario.class), anyList()))
+                .thenAnswer(invocacao -> new ResultadoLote(invocacao.getArgument(1), Collections.emptyMap()));
+    }
+
+    private Lancamento lancamento(Long idUsuario) {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.getUsuario().setId(idUsuario);
+        return lancamento;
+    }
+}
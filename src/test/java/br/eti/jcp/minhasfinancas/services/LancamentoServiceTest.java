@@ -1,25 +1,38 @@
 package br.eti.jcp.minhasfinancas.services;
 
 import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
 import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
 import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
 import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.model.pagination.CursorLancamento;
+import br.eti.jcp.minhasfinancas.model.pagination.PaginaLancamento;
+import br.eti.jcp.minhasfinancas.model.projections.LancamentoResumo;
 import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
 import br.eti.jcp.minhasfinancas.services.impl.LancamentoServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -27,8 +40,14 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.Assertions.catchThrowableOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -45,6 +64,24 @@ public class LancamentoServiceTest {
     @MockBean
     LancamentoRepository repository;
 
+    @MockBean
+    EntityManager entityManager;
+
+    @MockBean
+    SaldoService saldoService;
+
+    @MockBean
+    IndiceDescricao indiceDescricao;
+
+    @MockBean
+    ResumoMensalService resumoMensalService;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @MockBean
+    DiarioLancamentoService diarioService;
+
     private LancamentoTestFactory factory = new LancamentoTestFactory();
 
     @Test
@@ -61,6 +98,10 @@ public class LancamentoServiceTest {
 
         assertThat(lancamento.getId()).isEqualTo(lancamentoSalvo.getId());
         assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        verify(saldoService, times(1)).registrarInclusao(lancamentoSalvo);
+        verify(resumoMensalService, times(1)).registrarInclusao(lancamentoSalvo);
+        verify(diarioService, times(1)).registrarInclusao(lancamentoSalvo);
+        verify(versaoUsuarioService, times(1)).registrarAlteracao(1L);
 
     }
 
@@ -73,6 +114,43 @@ public class LancamentoServiceTest {
 
     }
 
+    @Test
+    public void salvarLoteReportandoErrosPorLinha() {
+        Lancamento valido = factory.criarLancamento();
+        Lancamento semValor = factory.criarLancamento();
+        semValor.setValor(null);
+        Lancamento outroValido = factory.criarLancamento();
+        Usuario usuario = valido.getUsuario();
+        // o saveAll pode devolver instâncias diferentes das recebidas (merge); as devolvidas são as gravadas
+        Lancamento validoSalvo = valido.toBuilder().id(1L).build();
+        Lancamento outroValidoSalvo = outroValido.toBuilder().id(2L).build();
+        when(repository.saveAll(Arrays.asList(valido, outroValido)))
+                .thenReturn(Arrays.asList(validoSalvo, outroValidoSalvo));
+
+        ResultadoLote resultado = service.salvarEmLote(usuario, Arrays.asList(valido, semValor, outroValido));
+
+        assertThat(resultado.getSalvos()).containsExactly(validoSalvo, outroValidoSalvo);
+        assertThat(resultado.getSalvos().get(0)).isSameAs(validoSalvo);
+        assertThat(resultado.getErros()).containsOnlyKeys(1).containsValue("Informe um valor válido.");
+        assertThat(valido.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        verify(repository, times(1)).saveAll(Arrays.asList(valido, outroValido));
+        verify(entityManager, times(1)).flush();
+        verify(saldoService, times(1)).registrarInclusoes(Arrays.asList(validoSalvo, outroValidoSalvo));
+        verify(diarioService, times(1)).registrarInclusoes(Arrays.asList(validoSalvo, outroValidoSalvo));
+        verify(indiceDescricao, times(1)).registrar(validoSalvo);
+    }
+
+    @Test
+    public void naoSalvarLoteAcimaDoLimite() {
+        List<Lancamento> lancamentos = new ArrayList<>();
+        for (int i = 0; i <= LancamentoServiceImpl.TAMANHO_LOTE_MAXIMO; i++) {
+            lancamentos.add(new Lancamento());
+        }
+        assertThatExceptionOfType(RegraDeNegocioException.class)
+                .isThrownBy(() -> service.salvarEmLote(new Usuario(), lancamentos));
+        verify(repository, never()).saveAll(any());
+    }
+
     @Test
     public void atualizarLancamento() {
 
@@ -104,6 +182,79 @@ public class LancamentoServiceTest {
         service.excluir(lancamento);
 
         verify(repository, times(1)).delete(lancamento);
+        verify(saldoService, times(1)).registrarExclusao(lancamento);
+        verify(resumoMensalService, times(1)).registrarExclusao(lancamento);
+        verify(diarioService, times(1)).registrarExclusao(lancamento);
+        verify(versaoUsuarioService, times(1)).registrarAlteracao(1L);
+    }
+
+    @Test
+    public void atualizarLancamentoAjustandoSaldoPelaDiferenca() {
+        Lancamento persistido = factory.criarLancamento();
+        persistido.setId(1L);
+        persistido.setVersao(0L);
+        Lancamento lancamento = persistido.toBuilder().valor(BigDecimal.ONE).build();
+
+        doNothing().when(service).validar(lancamento);
+        when(repository.findById(1L)).thenReturn(Optional.of(persistido));
+        when(repository.save(lancamento)).thenReturn(lancamento);
+
+        service.atualizar(lancamento);
+
+        verify(saldoService, times(1)).registrarAlteracao(persistido, lancamento);
+    }
+
+    @Test
+    public void naoAtualizarSemVersao() {
+        Lancamento persistido = factory.criarLancamento();
+        persistido.setId(1L);
+        persistido.setVersao(2L);
+        Lancamento lancamento = persistido.toBuilder().valor(BigDecimal.ONE).versao(null).build();
+
+        doNothing().when(service).validar(lancamento);
+        when(repository.findById(1L)).thenReturn(Optional.of(persistido));
+
+        Throwable erro = catchThrowable(() -> service.atualizar(lancamento));
+
+        assertThat(erro).isInstanceOf(RegraDeNegocioException.class).hasMessage("Informe a versão do lançamento.");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void manterStatusPersistidoAoAtualizar() {
+        Lancamento persistido = factory.criarLancamento();
+        persistido.setId(1L);
+        persistido.setVersao(0L);
+        persistido.setStatus(StatusLancamento.CANCELADO);
+        Lancamento lancamento = persistido.toBuilder().status(StatusLancamento.EFETIVADO).build();
+
+        doNothing().when(service).validar(lancamento);
+        when(repository.findById(1L)).thenReturn(Optional.of(persistido));
+        when(repository.save(lancamento)).thenReturn(lancamento);
+
+        service.atualizar(lancamento);
+
+        assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+    }
+
+    @Test
+    public void manterRecorrenciaAoAtualizarOcorrencia() {
+        Recorrencia recorrencia = Recorrencia.builder().id(7L).build();
+        Lancamento persistido = factory.criarLancamento();
+        persistido.setId(1L);
+        persistido.setVersao(0L);
+        persistido.setRecorrencia(recorrencia);
+        persistido.setOcorrencia(3);
+        Lancamento lancamento = persistido.toBuilder().valor(BigDecimal.ONE).recorrencia(null).ocorrencia(null).build();
+
+        doNothing().when(service).validar(lancamento);
+        when(repository.findById(1L)).thenReturn(Optional.of(persistido));
+        when(repository.save(lancamento)).thenReturn(lancamento);
+
+        service.atualizar(lancamento);
+
+        assertThat(lancamento.getRecorrencia()).isSameAs(recorrencia);
+        assertThat(lancamento.getOcorrencia()).isEqualTo(3);
     }
 
     @Test
@@ -118,27 +269,231 @@ public class LancamentoServiceTest {
         Lancamento lancamento = factory.criarLancamento();
         lancamento.setId(1L);
 
-        List<Lancamento> lista = Arrays.asList(lancamento);
-        when(repository.findAll(any(Example.class))).thenReturn(lista);
+        LancamentoResumo resumo = factory.criarResumo(1L, 2020, 1);
+        when(repository.buscar(1L, "%um lancamento qualquer%", 1, 2020)).thenReturn(Arrays.asList(resumo));
+
+        List<LancamentoResumo> lancamentos = service.buscar(lancamento);
+
+        assertThat(lancamentos).isNotEmpty().hasSize(1).contains(resumo);
+    }
 
-        List<Lancamento> lancamentos = service.buscar(lancamento);
+    @Test
+    public void buscaLancamentoPelosIdsDoIndiceDeDescricao() {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setId(1L);
 
-        assertThat(lancamentos).isNotEmpty().hasSize(1).contains(lancamento);
+        LancamentoResumo resumo = factory.criarResumo(1L, 2020, 1);
+        Set<Long> ids = Collections.singleton(1L);
+        when(indiceDescricao.buscar(1L, "Um lancamento qualquer")).thenReturn(Optional.of(ids));
+        when(repository.buscarPorIds(1L, Collections.singletonList(1L), "%um lancamento qualquer%", 1, 2020))
+                .thenReturn(Arrays.asList(resumo));
+
+        List<LancamentoResumo> lancamentos = service.buscar(lancamento);
+
+        assertThat(lancamentos).containsExactly(resumo);
+        verify(repository, never()).buscar(anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    public void buscarIdsDoIndiceDeDescricaoEmBlocos() {
+        Lancamento lancamento = factory.criarLancamento();
+        Set<Long> ids = LongStream.rangeClosed(1, 2500).boxed().collect(Collectors.toSet());
+        LancamentoResumo fevereiro = factory.criarResumo(10L, 2020, 2);
+        LancamentoResumo janeiro = factory.criarResumo(1500L, 2020, 1);
+        when(indiceDescricao.buscar(1L, "Um lancamento qualquer")).thenReturn(Optional.of(ids));
+        when(repository.buscarPorIds(eq(1L), anyList(), anyString(), any(), any())).thenAnswer(invocacao -> {
+            List<Long> bloco = invocacao.getArgument(1);
+            assertThat(bloco).hasSizeLessThanOrEqualTo(1000);
+            List<LancamentoResumo> encontrados = new ArrayList<>();
+            Stream.of(fevereiro, janeiro).filter(resumo -> bloco.contains(resumo.getId())).forEach(encontrados::add);
+            return encontrados;
+        });
+
+        List<LancamentoResumo> lancamentos = service.buscar(lancamento);
+
+        assertThat(lancamentos).containsExactly(janeiro, fevereiro);
+        verify(repository, times(3)).buscarPorIds(eq(1L), anyList(), anyString(), any(), any());
+    }
+
+    @Test
+    public void naoConsultarBancoQuandoIndiceDeDescricaoNaoEncontra() {
+        Lancamento lancamento = factory.criarLancamento();
+        when(indiceDescricao.buscar(1L, "Um lancamento qualquer")).thenReturn(Optional.of(Collections.emptySet()));
+
+        List<LancamentoResumo> lancamentos = service.buscar(lancamento);
+
+        assertThat(lancamentos).isEmpty();
+        verify(repository, never()).buscar(anyLong(), anyString(), any(), any());
+        verify(repository, never()).buscarPorIds(anyLong(), any(), anyString(), any(), any());
+    }
+
+    @Test
+    public void buscarPaginaComProximoCursor() {
+        LancamentoResumo primeiro = factory.criarResumo(1L, 2020, 1);
+        LancamentoResumo segundo = factory.criarResumo(2L, 2020, 2);
+        LancamentoResumo terceiro = factory.criarResumo(3L, 2020, 3);
+
+        when(repository.buscarPagina(eq(1L), eq("%"), isNull(), isNull(), anyInt(), anyInt(), anyLong(), eq(PageRequest.of(0, 3))))
+                .thenReturn(Arrays.asList(primeiro, segundo, terceiro));
+
+        Lancamento filtro = new Lancamento();
+        filtro.setUsuario(factory.criarLancamento().getUsuario());
+        PaginaLancamento pagina = service.buscarPagina(filtro, CursorLancamento.INICIO, 2);
+
+        assertThat(pagina.getLancamentos()).containsExactly(primeiro, segundo);
+        assertThat(pagina.getProximo()).isPresent();
+        CursorLancamento proximo = CursorLancamento.decodificar(pagina.getProximo().get().codificar());
+        assertThat(proximo.getId()).isEqualTo(2L);
+        assertThat(proximo.getAno()).isEqualTo(segundo.getAno());
+        assertThat(proximo.getMes()).isEqualTo(segundo.getMes());
+    }
+
+    @Test
+    public void buscarPaginaPelosPrimeirosDeCadaBlocoDeIds() {
+        Lancamento filtro = factory.criarLancamento();
+        filtro.setMes(null);
+        filtro.setAno(null);
+        Set<Long> ids = LongStream.rangeClosed(1, 1500).boxed().collect(Collectors.toSet());
+        LancamentoResumo primeiro = factory.criarResumo(1200L, 2020, 1);
+        LancamentoResumo segundo = factory.criarResumo(5L, 2020, 2);
+        LancamentoResumo terceiro = factory.criarResumo(6L, 2020, 3);
+        when(indiceDescricao.buscar(1L, "Um lancamento qualquer")).thenReturn(Optional.of(ids));
+        when(repository.buscarPaginaPorIds(eq(1L), anyList(), anyString(), any(), any(), anyInt(), anyInt(), anyLong(),
+                eq(PageRequest.of(0, 2))))
+                .thenReturn(Arrays.asList(segundo, terceiro), Collections.singletonList(primeiro));
+
+        PaginaLancamento pagina = service.buscarPagina(filtro, CursorLancamento.INICIO, 1);
+
+        assertThat(pagina.getLancamentos()).containsExactly(primeiro);
+        assertThat(pagina.getProximo()).isPresent();
+        verify(repository, times(2)).buscarPaginaPorIds(eq(1L), anyList(), anyString(), any(), any(), anyInt(),
+                anyInt(), anyLong(), any());
+    }
+
+    @Test
+    public void limitarTamanhoDaPagina() {
+        Lancamento filtro = factory.criarLancamento();
+        filtro.setDescricao(null);
+        when(repository.buscarPagina(anyLong(), anyString(), any(), any(), anyInt(), anyInt(), anyLong(), any()))
+                .thenReturn(Arrays.asList());
+
+        PaginaLancamento pagina = service.buscarPagina(filtro, CursorLancamento.INICIO, 100000);
+
+        assertThat(pagina.getProximo()).isEmpty();
+        verify(repository).buscarPagina(anyLong(), anyString(), any(), any(), anyInt(), anyInt(), anyLong(),
+                eq(PageRequest.of(0, LancamentoServiceImpl.TAMANHO_PAGINA_MAXIMO + 1)));
+    }
+
+    @Test
+    public void exportarLancamentos() {
+        LancamentoResumo primeiro = factory.criarResumo(1L, 2020, 1);
+        LancamentoResumo segundo = factory.criarResumo(2L, 2020, 2);
+        when(repository.exportarPorUsuario(1L)).thenReturn(Stream.of(primeiro, segundo));
+
+        List<LancamentoResumo> exportados = new ArrayList<>();
+        service.exportar(1L, exportados::add);
+
+        assertThat(exportados).containsExactly(primeiro, segundo);
     }
 
     @Test
     public void atualizarStatusDoLancamento() {
         Lancamento lancamento = factory.criarLancamento();
         lancamento.setId(1L);
+        lancamento.setVersao(3L);
 
         StatusLancamento novoStatus = StatusLancamento.EFETIVADO;
 
-        doReturn(lancamento).when(service).atualizar(lancamento);
+        when(repository.atualizarStatus(1L, 3L, StatusLancamento.PENDENTE, novoStatus)).thenReturn(1);
 
         service.atualizarStatus(lancamento, novoStatus);
 
         assertThat(lancamento.getStatus()).isEqualTo(novoStatus);
-        verify(service, times(1)).atualizar(lancamento);
+        assertThat(lancamento.getVersao()).isEqualTo(4L);
+        // um único UPDATE condicional, sem revalidar nem regravar o lançamento inteiro
+        verify(repository, never()).save(any(Lancamento.class));
+        verify(service, never()).validar(any());
+        // o resumo recebe o status anterior mesmo quando a instância alterada é a gerenciada
+        verify(resumoMensalService, times(1)).registrarAlteracao(
+                argThat(anterior -> StatusLancamento.PENDENTE.equals(anterior.getStatus())), eq(lancamento));
+        verify(diarioService, times(1)).registrarMudancaDeStatus(
+                argThat(anterior -> StatusLancamento.PENDENTE.equals(anterior.getStatus())), eq(novoStatus));
+        verify(versaoUsuarioService, times(1)).registrarAlteracao(1L);
+    }
+
+    @Test
+    public void naoAtualizarStatusComTransicaoInvalida() {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setId(1L);
+        lancamento.setVersao(0L);
+        lancamento.setStatus(StatusLancamento.CANCELADO);
+
+        Throwable erro = catchThrowable(() -> service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO));
+
+        assertThat(erro).isInstanceOf(RegraDeNegocioException.class)
+                .hasMessage("Não é possível alterar o status de CANCELADO para EFETIVADO.");
+        verify(repository, never()).atualizarStatus(anyLong(), anyLong(), any(), any());
+        assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+    }
+
+    @Test
+    public void naoAtualizarStatusAlteradoPorOutraOperacao() {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setId(1L);
+        lancamento.setVersao(0L);
+
+        when(repository.atualizarStatus(1L, 0L, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO)).thenReturn(0);
+
+        Throwable erro = catchThrowable(() -> service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO));
+
+        assertThat(erro).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        verify(resumoMensalService, never()).registrarAlteracao(any(), any());
+        verify(versaoUsuarioService, never()).registrarAlteracao(any());
+    }
+
+    @Test
+    public void atualizarStatusEmLotePorFiltroAjustandoResumo() {
+        Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1L).build()).ano(2020).mes(1)
+                .status(StatusLancamento.PENDENTE).build();
+        List<LancamentoResumo> bloco = Arrays.asList(factory.criarResumo(1L, 2020, 1), factory.criarResumo(2L, 2020, 1));
+        when(repository.bloquearParaMudancaDeStatus(eq(1L), eq(Collections.singleton(StatusLancamento.PENDENTE)),
+                eq(1), eq(2020), eq(0L), any())).thenReturn(bloco);
+        when(repository.atualizarStatusPorIds(Arrays.asList(1L, 2L), StatusLancamento.EFETIVADO)).thenReturn(2);
+
+        int atualizados = service.atualizarStatusEmLote(filtro, null, StatusLancamento.EFETIVADO);
+
+        assertThat(atualizados).isEqualTo(2);
+        verify(resumoMensalService, times(1)).registrarMudancasDeStatus(
+                argThat(grupos -> grupos.size() == 1 && grupos.iterator().next().getQuantidade() == 2L
+                        && new BigDecimal("20").equals(grupos.iterator().next().getTotal())),
+                eq(StatusLancamento.EFETIVADO));
+        verify(repository, never()).save(any(Lancamento.class));
+        verify(versaoUsuarioService, times(1)).registrarAlteracao(1L);
+    }
+
+    @Test
+    public void manterVersaoDoUsuarioQuandoLoteDeStatusNaoAlteraNada() {
+        Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1L).build())
+                .status(StatusLancamento.PENDENTE).build();
+        when(repository.bloquearParaMudancaDeStatus(eq(1L), any(), isNull(), isNull(), eq(0L), any()))
+                .thenReturn(Collections.emptyList());
+
+        int atualizados = service.atualizarStatusEmLote(filtro, null, StatusLancamento.EFETIVADO);
+
+        assertThat(atualizados).isZero();
+        verify(versaoUsuarioService, never()).registrarAlteracao(any());
+    }
+
+    @Test
+    public void naoAtualizarStatusEmLoteComTransicaoInvalida() {
+        Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1L).build())
+                .status(StatusLancamento.CANCELADO).build();
+
+        Throwable erro = catchThrowable(() -> service.atualizarStatusEmLote(filtro, null, StatusLancamento.EFETIVADO));
+
+        assertThat(erro).isInstanceOf(RegraDeNegocioException.class);
+        verify(repository, never()).atualizarStatusPorIds(any(), any());
     }
 
     @Test
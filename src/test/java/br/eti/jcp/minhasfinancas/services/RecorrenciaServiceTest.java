@@ -0,0 +1,198 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
+import br.eti.jcp.minhasfinancas.model.batch.ResultadoLote;
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.Recorrencia;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.repositories.RecorrenciaRepository;
+import br.eti.jcp.minhasfinancas.services.impl.RecorrenciaServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@Import(SimpleMeterRegistry.class)
+public class RecorrenciaServiceTest {
+
+    @SpyBean
+    RecorrenciaServiceImpl service;
+
+    @MockBean
+    RecorrenciaRepository repository;
+
+    @MockBean
+    LancamentoService lancamentoService;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final Usuario usuario = Usuario.builder().id(1L).build();
+
+    @BeforeEach
+    public void preparar() {
+        when(repository.save(any(Recorrencia.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+        when(lancamentoService.salvarEmLote(any(Usuario.class), anyList()))
+                .thenAnswer(invocacao -> new ResultadoLote(invocacao.getArgument(1), Collections.emptyMap()));
+    }
+
+    @Test
+    public void gerarTodasAsParcelasEmUmLote() {
+        Recorrencia compra = recorrencia(YearMonth.of(2020, 1)).descricao("Compra").parcelas(48).build();
+
+        Recorrencia salva = service.salvar(compra);
+
+        List<Lancamento> parcelas = lancamentosGerados();
+        assertThat(parcelas).hasSize(48);
+        assertThat(parcelas.get(0)).extracting(Lancamento::getDescricao, Lancamento::getMes, Lancamento::getAno,
+                Lancamento::getOcorrencia).containsExactly("Compra (1/48)", 1, 2020, 1);
+        assertThat(parcelas.get(47)).extracting(Lancamento::getDescricao, Lancamento::getMes, Lancamento::getAno,
+                Lancamento::getOcorrencia).containsExactly("Compra (48/48)", 12, 2023, 48);
+        assertThat(parcelas).allMatch(parcela -> parcela.getRecorrencia() == compra);
+        assertThat(salva.getGeradas()).isEqualTo(48);
+        assertThat(salva.getConcluida()).isTrue();
+    }
+
+    @Test
+    public void gerarRecorrenciaSemFimAteOHorizonte() {
+        Recorrencia salario = recorrencia(YearMonth.now()).build();
+
+        Recorrencia salva = service.salvar(salario);
+
+        // mês corrente e os 12 seguintes
+        assertThat(lancamentosGerados()).hasSize(13)
+                .allMatch(lancamento -> lancamento.getDescricao().equals("Salario"));
+        assertThat(salva.getGeradas()).isEqualTo(13);
+        assertThat(salva.getConcluida()).isFalse();
+    }
+
+    @Test
+    public void encerrarNoMesFinal() {
+        YearMonth inicio = YearMonth.now();
+        YearMonth fim = inicio.plusMonths(2);
+        Recorrencia aluguel = recorrencia(inicio).mesFinal(fim.getMonthValue()).anoFinal(fim.getYear()).build();
+
+        Recorrencia salva = service.salvar(aluguel);
+
+        assertThat(lancamentosGerados()).hasSize(3);
+        assertThat(salva.getConcluida()).isTrue();
+    }
+
+    @Test
+    public void completarRecorrenciasPendentesAposPeriodoParado() {
+        Recorrencia salario = recorrencia(YearMonth.now().minusMonths(5)).id(3L).geradas(1).concluida(false).build();
+        when(repository.buscarPendentes()).thenReturn(Collections.singletonList(3L));
+        when(repository.bloquear(3L)).thenReturn(Optional.of(salario));
+
+        int geradas = service.gerarPendentes();
+
+        List<Lancamento> lancamentos = lancamentosGerados();
+        YearMonth segundoMes = YearMonth.now().minusMonths(4);
+        assertThat(geradas).isEqualTo(17);
+        assertThat(lancamentos).hasSize(17);
+        assertThat(lancamentos.get(0)).extracting(Lancamento::getMes, Lancamento::getAno, Lancamento::getOcorrencia)
+                .containsExactly(segundoMes.getMonthValue(), segundoMes.getYear(), 2);
+        assertThat(salario.getGeradas()).isEqualTo(18);
+    }
+
+    @Test
+    public void seguirComAsDemaisRecorrenciasAposFalha() {
+        Recorrencia salario = recorrencia(YearMonth.now()).id(4L).geradas(12).concluida(false).build();
+        when(repository.buscarPendentes()).thenReturn(Arrays.asList(3L, 4L));
+        when(repository.bloquear(3L)).thenThrow(new IllegalStateException("falha"));
+        when(repository.bloquear(4L)).thenReturn(Optional.of(salario));
+        double anteriores = registry.counter("recorrencia.geracao.falhas").count();
+
+        int geradas = service.gerarPendentes();
+
+        assertThat(geradas).isEqualTo(1);
+        assertThat(salario.getGeradas()).isEqualTo(13);
+        assertThat(registry.counter("recorrencia.geracao.falhas").count()).isEqualTo(anteriores + 1);
+    }
+
+    @Test
+    public void naoGerarRecorrenciaJaCompleta() {
+        Recorrencia salario = recorrencia(YearMonth.now()).id(3L).geradas(13).concluida(false).build();
+        when(repository.buscarPendentes()).thenReturn(Collections.singletonList(3L));
+        when(repository.bloquear(3L)).thenReturn(Optional.of(salario));
+
+        assertThat(service.gerarPendentes()).isZero();
+
+        verify(lancamentoService, never()).salvarEmLote(any(Usuario.class), anyList());
+    }
+
+    @Test
+    public void naoSalvarRecorrenciaComParcelasEMesFinal() {
+        Recorrencia recorrencia = recorrencia(YearMonth.of(2020, 1)).parcelas(12).mesFinal(12).anoFinal(2020).build();
+
+        Throwable erro = catchThrowable(() -> service.salvar(recorrencia));
+
+        assertThat(erro).isInstanceOf(RegraDeNegocioException.class)
+                .hasMessage("Informe as parcelas ou o mês final, não ambos.");
+        verify(repository, never()).save(any(Recorrencia.class));
+    }
+
+    @Test
+    public void validarRecorrencia() {
+        Throwable semParcelas = catchThrowable(() -> service.validar(recorrencia(YearMonth.of(2020, 1)).parcelas(0).build()));
+        Throwable fimAntesDoInicio = catchThrowable(() -> service.validar(recorrencia(YearMonth.of(2020, 6))
+                .mesFinal(5).anoFinal(2020).build()));
+        Throwable semAnoFinal = catchThrowable(() -> service.validar(recorrencia(YearMonth.of(2020, 1)).mesFinal(5).build()));
+
+        assertThat(semParcelas).isInstanceOf(RegraDeNegocioException.class)
+                .hasMessage("Informe entre 1 e " + RecorrenciaServiceImpl.PARCELAS_MAXIMO + " parcelas.");
+        assertThat(fimAntesDoInicio).isInstanceOf(RegraDeNegocioException.class)
+                .hasMessage("O mês final não pode ser anterior ao inicial.");
+        assertThat(semAnoFinal).isInstanceOf(RegraDeNegocioException.class)
+                .hasMessage("Informe o mês e o ano finais.");
+        verify(lancamentoService, times(3)).validar(any(Lancamento.class));
+    }
+
+    private Recorrencia.RecorrenciaBuilder recorrencia(YearMonth inicio) {
+        return Recorrencia.builder()
+                .usuario(usuario)
+                .descricao("Salario")
+                .valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.RECEITA)
+                .mesInicial(inicio.getMonthValue())
+                .anoInicial(inicio.getYear());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Lancamento> lancamentosGerados() {
+        ArgumentCaptor<List<Lancamento>> lote = ArgumentCaptor.forClass(List.class);
+        verify(lancamentoService, times(1)).salvarEmLote(any(Usuario.class), lote.capture());
+        return lote.getValue();
+    }
+}
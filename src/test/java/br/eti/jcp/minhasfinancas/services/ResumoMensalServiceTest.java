@@ -0,0 +1,147 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensal;
+import br.eti.jcp.minhasfinancas.model.entity.ResumoMensalId;
+import br.eti.jcp.minhasfinancas.model.enums.StatusLancamento;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.model.repositories.ResumoMensalRepository;
+import br.eti.jcp.minhasfinancas.services.impl.ResumoMensalServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ResumoMensalServiceTest {
+
+    @SpyBean
+    ResumoMensalServiceImpl service;
+
+    @MockBean
+    ResumoMensalRepository repository;
+
+    @MockBean
+    LancamentoRepository lancamentoRepository;
+
+    @MockBean
+    EntityManager entityManager;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    private LancamentoTestFactory factory = new LancamentoTestFactory();
+
+    @Test
+    public void somarInclusaoAoGrupoDoLancamento() {
+        Lancamento lancamento = factory.criarLancamento();
+        when(repository.somar(ResumoMensalId.de(lancamento), 1L, BigDecimal.TEN)).thenReturn(1);
+
+        service.registrarInclusao(lancamento);
+
+        verify(repository, times(1)).somar(ResumoMensalId.de(lancamento), 1L, BigDecimal.TEN);
+        verify(repository, never()).criar(any());
+    }
+
+    @Test
+    public void agruparInclusoesDoLote() {
+        Lancamento primeiro = factory.criarLancamento();
+        Lancamento segundo = factory.criarLancamento();
+        Lancamento outroMes = factory.criarLancamento();
+        outroMes.setMes(2);
+        when(repository.somar(any(), anyLong(), any())).thenReturn(1);
+
+        service.registrarInclusoes(Arrays.asList(primeiro, segundo, outroMes));
+
+        verify(repository, times(1)).somar(ResumoMensalId.de(primeiro), 2L, new BigDecimal("20"));
+        verify(repository, times(1)).somar(ResumoMensalId.de(outroMes), 1L, BigDecimal.TEN);
+    }
+
+    @Test
+    public void moverLancamentoEntreGruposAoAlterarStatus() {
+        Lancamento anterior = factory.criarLancamento();
+        Lancamento atual = anterior.toBuilder().status(StatusLancamento.EFETIVADO).build();
+        when(repository.somar(any(), anyLong(), any())).thenReturn(1);
+
+        service.registrarAlteracao(anterior, atual);
+
+        verify(repository, times(1)).somar(ResumoMensalId.de(anterior), -1L, BigDecimal.TEN.negate());
+        verify(repository, times(1)).somar(ResumoMensalId.de(atual), 1L, BigDecimal.TEN);
+    }
+
+    @Test
+    public void consolidarGruposDeMudancaDeStatusEmMassa() {
+        ResumoMensalId pendentes = new ResumoMensalId(1L, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE);
+        ResumoMensalId efetivados = new ResumoMensalId(1L, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+        ResumoMensalId cancelados = new ResumoMensalId(1L, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.CANCELADO);
+        when(repository.somar(any(), anyLong(), any())).thenReturn(1);
+
+        service.registrarMudancasDeStatus(Arrays.asList(
+                new ResumoMensal(pendentes, 3L, new BigDecimal("30")),
+                new ResumoMensal(efetivados, 2L, new BigDecimal("5"))), StatusLancamento.CANCELADO);
+
+        verify(repository, times(1)).somar(pendentes, -3L, new BigDecimal("-30"));
+        verify(repository, times(1)).somar(efetivados, -2L, new BigDecimal("-5"));
+        // os dois grupos de origem chegam ao mesmo grupo de destino, ajustado uma única vez
+        verify(repository, times(1)).somar(cancelados, 5L, new BigDecimal("35"));
+    }
+
+    @Test
+    public void ajustarSomenteTotalQuandoGrupoNaoMuda() {
+        Lancamento anterior = factory.criarLancamento();
+        Lancamento atual = anterior.toBuilder().valor(BigDecimal.ONE).build();
+        when(repository.somar(any(), anyLong(), any())).thenReturn(1);
+
+        service.registrarAlteracao(anterior, atual);
+
+        verify(repository, times(1)).somar(ResumoMensalId.de(atual), 0L, new BigDecimal("-9"));
+    }
+
+    @Test
+    public void inicializarGrupoInexistenteAPartirDosLancamentos() {
+        Lancamento lancamento = factory.criarLancamento();
+        ResumoMensalId id = ResumoMensalId.de(lancamento);
+        ResumoMensal calculado = new ResumoMensal(id, 3L, new BigDecimal("30"));
+        when(repository.somar(id, 1L, BigDecimal.TEN)).thenReturn(0);
+        when(lancamentoRepository.calcularResumoMensal(1L, 2020, 1, lancamento.getTipo(), lancamento.getStatus()))
+                .thenReturn(Optional.of(calculado));
+        when(repository.criar(calculado)).thenReturn(1);
+
+        service.registrarInclusao(lancamento);
+
+        verify(repository, times(1)).criar(calculado);
+        verify(repository, times(1)).somar(id, 1L, BigDecimal.TEN);
+    }
+
+    @Test
+    public void somarAoGrupoCriadoPorOutraTransacao() {
+        Lancamento lancamento = factory.criarLancamento();
+        ResumoMensalId id = ResumoMensalId.de(lancamento);
+        ResumoMensal calculado = new ResumoMensal(id, 1L, BigDecimal.TEN);
+        when(repository.somar(id, 1L, BigDecimal.TEN)).thenReturn(0, 1);
+        when(lancamentoRepository.calcularResumoMensal(1L, 2020, 1, lancamento.getTipo(), lancamento.getStatus()))
+                .thenReturn(Optional.of(calculado));
+        when(repository.criar(calculado)).thenReturn(0);
+
+        service.registrarInclusao(lancamento);
+
+        verify(repository, times(2)).somar(id, 1L, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,164 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.model.entity.Lancamento;
+import br.eti.jcp.minhasfinancas.model.entity.SaldoUsuario;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.model.enums.TipoLancamento;
+import br.eti.jcp.minhasfinancas.model.factory.LancamentoTestFactory;
+import br.eti.jcp.minhasfinancas.model.repositories.LancamentoRepository;
+import br.eti.jcp.minhasfinancas.model.repositories.SaldoUsuarioRepository;
+import br.eti.jcp.minhasfinancas.services.impl.SaldoCache;
+import br.eti.jcp.minhasfinancas.services.impl.SaldoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class SaldoServiceTest {
+
+    @SpyBean
+    SaldoServiceImpl service;
+
+    @MockBean
+    SaldoUsuarioRepository repository;
+
+    @MockBean
+    LancamentoRepository lancamentoRepository;
+
+    @MockBean
+    EntityManager entityManager;
+
+    @MockBean
+    VersaoUsuarioService versaoUsuarioService;
+
+    @SpyBean
+    SaldoCache cache;
+
+    private LancamentoTestFactory factory = new LancamentoTestFactory();
+
+    @BeforeEach
+    public void initTest() {
+        cache.invalidarTodos();
+    }
+
+    @Test
+    public void somarReceitaAoSaldo() {
+        Lancamento lancamento = factory.criarLancamento();
+        when(repository.somar(1L, BigDecimal.TEN)).thenReturn(1);
+
+        service.registrarInclusao(lancamento);
+
+        verify(repository, times(1)).somar(1L, BigDecimal.TEN);
+        verify(repository, never()).save(any(SaldoUsuario.class));
+    }
+
+    @Test
+    public void subtrairDespesaExcluidaDoSaldo() {
+        Lancamento lancamento = factory.criarLancamento();
+        lancamento.setTipo(TipoLancamento.DESPESA);
+        when(repository.somar(1L, BigDecimal.TEN)).thenReturn(1);
+
+        service.registrarExclusao(lancamento);
+
+        verify(repository, times(1)).somar(1L, BigDecimal.TEN);
+    }
+
+    @Test
+    public void ajustarSaldoPelaDiferencaDaAlteracao() {
+        Lancamento anterior = factory.criarLancamento();
+        Lancamento atual = anterior.toBuilder().tipo(TipoLancamento.DESPESA).valor(BigDecimal.ONE).build();
+        when(repository.somar(1L, new BigDecimal("-11"))).thenReturn(1);
+
+        service.registrarAlteracao(anterior, atual);
+
+        verify(repository, times(1)).somar(1L, new BigDecimal("-11"));
+    }
+
+    @Test
+    public void moverSaldoEntreUsuarios() {
+        Lancamento anterior = factory.criarLancamento();
+        Lancamento atual = anterior.toBuilder().usuario(Usuario.builder().id(2L).build()).build();
+        when(repository.somar(any(), any())).thenReturn(1);
+
+        service.registrarAlteracao(anterior, atual);
+
+        verify(repository, times(1)).somar(1L, BigDecimal.TEN.negate());
+        verify(repository, times(1)).somar(2L, BigDecimal.TEN);
+    }
+
+    @Test
+    public void inicializarSaldoInexistenteAPartirDosLancamentos() {
+        Lancamento lancamento = factory.criarLancamento();
+        when(repository.somar(1L, BigDecimal.TEN)).thenReturn(0);
+        when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(1L, TipoLancamento.RECEITA)).thenReturn(BigDecimal.TEN);
+
+        when(repository.criar(1L, BigDecimal.TEN)).thenReturn(1);
+
+        service.registrarInclusao(lancamento);
+
+        verify(repository, times(1)).criar(1L, BigDecimal.TEN);
+        verify(repository, times(1)).somar(1L, BigDecimal.TEN);
+    }
+
+    @Test
+    public void somarAoSaldoCriadoPorOutraTransacao() {
+        Lancamento lancamento = factory.criarLancamento();
+        when(repository.somar(1L, BigDecimal.TEN)).thenReturn(0, 1);
+        when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(1L, TipoLancamento.RECEITA)).thenReturn(BigDecimal.TEN);
+        when(repository.criar(1L, BigDecimal.TEN)).thenReturn(0);
+
+        service.registrarInclusao(lancamento);
+
+        verify(repository, times(2)).somar(1L, BigDecimal.TEN);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void obterSaldoMaterializado() {
+        when(repository.findById(1L)).thenReturn(Optional.of(new SaldoUsuario(1L, BigDecimal.ONE)));
+
+        assertThat(service.obterSaldo(1L)).isEqualTo(BigDecimal.ONE);
+        verify(lancamentoRepository, never()).obterSaldoPorTipoLancamentoEUsuario(any(), any());
+    }
+
+    @Test
+    public void servirSaldoDoCacheAteAlteracaoDoUsuario() {
+        Lancamento lancamento = factory.criarLancamento();
+        when(repository.findById(1L)).thenReturn(Optional.of(new SaldoUsuario(1L, BigDecimal.ONE)));
+        when(repository.somar(any(), any())).thenReturn(1);
+
+        service.obterSaldo(1L);
+        service.obterSaldo(1L);
+        verify(repository, times(1)).findById(1L);
+
+        service.registrarInclusao(lancamento);
+        service.obterSaldo(1L);
+        verify(repository, times(2)).findById(1L);
+        verify(cache, times(1)).invalidar(1L);
+    }
+
+    @Test
+    public void calcularSaldoAindaNaoMaterializado() {
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+        when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(1L, TipoLancamento.RECEITA)).thenReturn(BigDecimal.TEN);
+        when(lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(1L, TipoLancamento.DESPESA)).thenReturn(BigDecimal.ONE);
+
+        assertThat(service.obterSaldo(1L)).isEqualTo(new BigDecimal("9"));
+    }
+}
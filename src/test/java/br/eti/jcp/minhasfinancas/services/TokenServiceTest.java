@@ -0,0 +1,58 @@
+package br.eti.jcp.minhasfinancas.services;
+
+import br.eti.jcp.minhasfinancas.exceptions.AutenticacaoException;
+import br.eti.jcp.minhasfinancas.model.entity.Usuario;
+import br.eti.jcp.minhasfinancas.services.impl.TokenServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TokenServiceTest {
+
+    private static final String SEGREDO = "segredo-com-ao-menos-32-bytes-para-hs256";
+
+    private final TokenService service = new TokenServiceImpl(new ObjectMapper(), SEGREDO, 60);
+
+    @Test
+    public void validarTokenGerado() {
+        String token = service.gerar(Usuario.builder().id(1L).build());
+
+        assertThat(service.validar(token)).isEqualTo(1L);
+    }
+
+    @Test
+    public void recusarTokenAdulterado() {
+        String token = service.gerar(Usuario.builder().id(1L).build());
+        String outro = service.gerar(Usuario.builder().id(2L).build());
+        String[] partes = token.split("\\.");
+        String adulterado = partes[0] + "." + outro.split("\\.")[1] + "." + partes[2];
+
+        assertThatExceptionOfType(AutenticacaoException.class).isThrownBy(() -> service.validar(adulterado));
+        assertThatExceptionOfType(AutenticacaoException.class).isThrownBy(() -> service.validar("x.y"));
+    }
+
+    @Test
+    public void recusarTokenDeOutroSegredo() {
+        String token = new TokenServiceImpl(new ObjectMapper(), "outro-segredo-com-ao-menos-32-bytes", 60).gerar(Usuario.builder().id(1L).build());
+
+        assertThatExceptionOfType(AutenticacaoException.class).isThrownBy(() -> service.validar(token));
+    }
+
+    @Test
+    public void recusarTokenExpirado() {
+        String token = new TokenServiceImpl(new ObjectMapper(), SEGREDO, 0).gerar(Usuario.builder().id(1L).build());
+
+        assertThatExceptionOfType(AutenticacaoException.class).isThrownBy(() -> service.validar(token))
+                .withMessage("Token expirado.");
+    }
+
+    @Test
+    public void recusarSegredoAusenteOuCurto() {
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> new TokenServiceImpl(new ObjectMapper(), "", 60));
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> new TokenServiceImpl(new ObjectMapper(), "segredo", 60));
+    }
+}
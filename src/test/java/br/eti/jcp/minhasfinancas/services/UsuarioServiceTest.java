@@ -4,13 +4,16 @@ import br.eti.jcp.minhasfinancas.exceptions.AutenticacaoException;
 import br.eti.jcp.minhasfinancas.exceptions.RegraDeNegocioException;
 import br.eti.jcp.minhasfinancas.model.entity.Usuario;
 import br.eti.jcp.minhasfinancas.model.repositories.UsuarioRepository;
+import br.eti.jcp.minhasfinancas.services.impl.AutenticacaoCache;
 import br.eti.jcp.minhasfinancas.services.impl.UsuarioServiceImpl;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -26,6 +29,17 @@ public class UsuarioServiceTest {
     @MockBean
     private UsuarioRepository repository;
 
+    @SpyBean
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @SpyBean
+    private AutenticacaoCache cache;
+
+    @BeforeEach
+    public void initTest() {
+        cache.invalidarTodos();
+    }
+
     @Test
     public void validarEmailInexistente() {
         Mockito.when(repository.existsByEmail(Mockito.anyString())).thenReturn(false);
@@ -55,6 +69,51 @@ public class UsuarioServiceTest {
         Assertions.assertThat(usuario).isNotNull();
     }
 
+    @Test
+    public void substituirSenhaEmTextoPeloHashAoAutenticar() {
+        String email = "usuario@email.com";
+        Usuario usuarioMock = Usuario.builder().nome("Usuario").email(email).senha("1234").id(1L).build();
+        Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuarioMock));
+
+        service.autenticar(email, "1234");
+
+        Assertions.assertThat(usuarioMock.getSenha()).startsWith("$2a$");
+        Assertions.assertThat(passwordEncoder.matches("1234", usuarioMock.getSenha())).isTrue();
+        Mockito.verify(repository, Mockito.times(1)).save(usuarioMock);
+    }
+
+    @Test
+    public void autenticarUsuarioComSenhaCriptografada() {
+        String email = "usuario@email.com";
+        Usuario usuarioMock = Usuario.builder().nome("Usuario").email(email)
+                .senha(passwordEncoder.encode("1234")).id(1L).build();
+        Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuarioMock));
+
+        Assertions.assertThat(service.autenticar(email, "1234").getId()).isEqualTo(1L);
+        Assertions.assertThatExceptionOfType(AutenticacaoException.class)
+                .isThrownBy(()-> {service.autenticar(email, "4321");});
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Usuario.class));
+    }
+
+    @Test
+    public void reaproveitarLoginVerificadoRecentemente() {
+        String email = "usuario@email.com";
+        Usuario usuarioMock = Usuario.builder().nome("Usuario").email(email)
+                .senha(passwordEncoder.encode("1234")).id(1L).build();
+        Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuarioMock));
+
+        service.autenticar(email, "1234");
+        Usuario usuario = service.autenticar(email, "1234");
+
+        Assertions.assertThat(usuario.getId()).isEqualTo(1L);
+        Assertions.assertThat(usuario.getSenha()).isNull();
+        Mockito.verify(repository, Mockito.times(1)).findByEmail(email);
+        Mockito.verify(passwordEncoder, Mockito.times(1)).matches(Mockito.eq("1234"), Mockito.anyString());
+
+        Assertions.assertThatExceptionOfType(AutenticacaoException.class)
+                .isThrownBy(()-> {service.autenticar(email, "4321");});
+    }
+
     @Test
     public void naoAutenticarUsuarioComEmailInvalido() {
         String email = "usuario@email.com";
@@ -94,6 +153,18 @@ public class UsuarioServiceTest {
         Assertions.assertThat(usuarioSalvo.getSenha()).isEqualTo("1234");
     }
 
+    @Test
+    public void salvarUsuarioComSenhaCriptografada() {
+        Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+        Usuario usuario = Usuario.builder().nome("Usuario").email("usuario@email.com").senha("1234").build();
+        Mockito.when(repository.save(usuario)).thenReturn(usuario);
+
+        service.salvarUsuario(usuario);
+
+        Assertions.assertThat(usuario.getSenha()).isNotEqualTo("1234");
+        Assertions.assertThat(passwordEncoder.matches("1234", usuario.getSenha())).isTrue();
+    }
+
     @Test
     public void naoSalvarUsuarioComEmailJaCadastrado() {
         Mockito.when(repository.existsByEmail(Mockito.anyString())).thenReturn(true);
@@ -103,4 +174,12 @@ public class UsuarioServiceTest {
                 .withMessage("Já existe um usuário cadastrado com esse email");
         Mockito.verify(repository, Mockito.never()).save(usuarioMock);
     }
+
+    @Test
+    public void verificarExistenciaDoUsuarioSemCarregarEntidade() {
+        Mockito.when(repository.existsById(1L)).thenReturn(true);
+        Assertions.assertThat(service.existePorId(1L)).isTrue();
+        Assertions.assertThat(service.existePorId(null)).isFalse();
+        Mockito.verify(repository, Mockito.never()).findById(Mockito.any());
+    }
 }